@@ -0,0 +1,28 @@
+package com.movie.app;
+
+import com.movie.app.service.FileUploadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves stored media into the sharded layout when the application is started with
+ * {@code --migrate-storage}. Files stay servable throughout: each one is re-indexed at its new
+ * location before the old copy disappears.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageMigrationRunner implements ApplicationRunner {
+
+    private static final String MIGRATE_OPTION = "migrate-storage";
+
+    private final FileUploadService fileUploadService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(MIGRATE_OPTION)) {
+            fileUploadService.migrateStorageLayout();
+        }
+    }
+}
@@ -1,15 +1,35 @@
 package com.movie.app.controller;
 
+import com.movie.app.dto.request.UploadSessionRequest;
+import com.movie.app.dto.response.MediaJobResponse;
+import com.movie.app.dto.response.OrphanedMediaResponse;
+import com.movie.app.dto.response.StoredFileResponse;
+import com.movie.app.dto.response.UploadSessionResponse;
 import com.movie.app.service.FileUploadService;
+import com.movie.app.util.ResourceWriteListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/files")
@@ -17,37 +37,149 @@ import java.util.UUID;
 public class FileUploadContoller {
     private final FileUploadService fileUploadService;
 
+    @Value("${file.serve.async-video:true}")
+    private boolean asyncVideo;
+
+    @Value("${file.serve.async-timeout-ms:3600000}")
+    private long asyncTimeoutMillis;
+
+    @Value("${file.serve.async-read-threads:8}")
+    private int asyncReadThreads;
+
+    // Reads the chunks that ResourceWriteListener writes, keeping disk reads off Tomcat's threads
+    private ExecutorService asyncReadPool;
+
+    @PostConstruct
+    public void startAsyncReadPool() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.asyncReadPool = Executors.newFixedThreadPool(asyncReadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "video-read-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stopAsyncReadPool() {
+        asyncReadPool.shutdownNow();
+    }
+
     @PostMapping("/upload/video")
     public ResponseEntity<Map<String, String>> uploadVideo(@RequestParam("file") MultipartFile file) {
         String uuid = fileUploadService.storeVideoFile(file);
-        return ResponseEntity.ok(buildUploadResponse(uuid,file));
+        return ResponseEntity.accepted().body(buildJobResponse(uuid, file));
+    }
+
+    @PostMapping("/upload/video/sessions")
+    public ResponseEntity<UploadSessionResponse> createVideoUploadSession(@Valid @RequestBody UploadSessionRequest request) {
+        return ResponseEntity.ok(fileUploadService.createVideoUploadSession(request));
+    }
+
+    @PutMapping(value = "/upload/video/sessions/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadSessionResponse> writeVideoUploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(HttpHeaders.CONTENT_LENGTH) long contentLength,
+            InputStream body) {
+        return ResponseEntity.ok(fileUploadService.writeVideoUploadChunk(uploadId, offset, contentLength, body));
+    }
+
+    @GetMapping("/upload/video/sessions/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getVideoUploadSession(@PathVariable String uploadId) {
+        return ResponseEntity.ok(fileUploadService.getVideoUploadSession(uploadId));
+    }
+
+    @PostMapping("/upload/video/sessions/{uploadId}/complete")
+    public ResponseEntity<Map<String, String>> completeVideoUploadSession(@PathVariable String uploadId) {
+        UploadSessionResponse session = fileUploadService.completeVideoUploadSession(uploadId);
+        return ResponseEntity.ok(buildUploadResponse(session.getUploadId(), session.getFilename(), session.getSize()));
     }
 
     @PostMapping("/upload/image")
     public ResponseEntity<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
         String uuid = fileUploadService.storeImageFile(file);
-        return ResponseEntity.ok(buildUploadResponse(uuid,file));
+        return ResponseEntity.accepted().body(buildJobResponse(uuid, file));
+    }
+
+    @GetMapping("/jobs/{uuid}")
+    public ResponseEntity<MediaJobResponse> getJob(@PathVariable String uuid) {
+        return ResponseEntity.ok(fileUploadService.getJob(uuid));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/orphans")
+    public ResponseEntity<OrphanedMediaResponse> reportOrphanedMedia() {
+        return ResponseEntity.ok(fileUploadService.collectOrphanedMedia(true));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/orphans/collect")
+    public ResponseEntity<OrphanedMediaResponse> collectOrphanedMedia() {
+        return ResponseEntity.ok(fileUploadService.collectOrphanedMedia(false));
+    }
+
+    @PostMapping(value = "/upload/video/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, String>> uploadVideoStream(@RequestParam String filename, InputStream body) {
+        return ResponseEntity.ok(buildUploadResponse(fileUploadService.storeVideoStream(filename, body)));
+    }
+
+    @PostMapping(value = "/upload/image/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, String>> uploadImageStream(@RequestParam String filename, InputStream body) {
+        return ResponseEntity.ok(buildUploadResponse(fileUploadService.storeImageStream(filename, body)));
     }
 
     @GetMapping("/video/{uuid}")
     public ResponseEntity<Resource> serveVideo(
             @PathVariable String uuid,
-            @RequestHeader(value = "Range", required = false) String rangeHeader,
-            @RequestHeader(value = "token", required = false) String tokenParam) {
+            @RequestHeader HttpHeaders requestHeaders,
+            @RequestHeader(value = "token", required = false) String tokenParam,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
-        return fileUploadService.serveVideo(uuid,rangeHeader);
+        ResponseEntity<Resource> videoResponse = fileUploadService.serveVideo(uuid, requestHeaders);
+        Resource body = videoResponse.getBody();
+        if (!asyncVideo || asyncReadPool == null || body == null || !request.isAsyncSupported()) {
+            return videoResponse;
+        }
+        // The body is written by the container's write callbacks, not by this request thread
+        response.setStatus(videoResponse.getStatusCode().value());
+        videoResponse.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (!videoResponse.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH) && body.isFile()) {
+            response.setContentLengthLong(body.contentLength());
+        }
+        ResourceWriteListener.start(request, response, body, asyncTimeoutMillis, asyncReadPool);
+        return null;
     }
 
     @GetMapping("/image/{uuid}")
-    public ResponseEntity<Resource> serveImage(@PathVariable String uuid){
-        return fileUploadService.serveImage(uuid);
+    public ResponseEntity<Resource> serveImage(
+            @PathVariable String uuid,
+            @RequestParam(value = "w", required = false) Integer width,
+            @RequestParam(value = "h", required = false) Integer height,
+            @RequestHeader HttpHeaders requestHeaders) {
+        return fileUploadService.serveImage(uuid, width, height, requestHeaders);
+    }
+
+    private Map<String, String> buildJobResponse(String uuid, MultipartFile file) {
+        Map<String, String> response = buildUploadResponse(uuid, file.getOriginalFilename(), file.getSize());
+        // The file is published by the media job; poll it before serving or probing the upload
+        response.put("job", "/api/files/jobs/" + uuid);
+        return response;
+    }
+
+    private Map<String, String> buildUploadResponse(StoredFileResponse storedFile) {
+        Map<String, String> response = buildUploadResponse(storedFile.getUuid(), storedFile.getFilename(), storedFile.getSize());
+        response.put("checksum", storedFile.getChecksum());
+        response.put("contentType", storedFile.getContentType());
+        response.put("deduplicated", String.valueOf(storedFile.isDeduplicated()));
+        return response;
     }
 
-    private Map<String, String> buildUploadResponse(String uuid, MultipartFile file) {
+    private Map<String, String> buildUploadResponse(String uuid, String filename, long size) {
         Map<String, String> response = new HashMap<>();
         response.put("uuid", uuid);
-        response.put("filename", file.getOriginalFilename());
-        response.put("size", String.valueOf(file.getSize()));
+        response.put("filename", filename);
+        response.put("size", String.valueOf(size));
         return response;
     }
 }
@@ -34,9 +34,10 @@ public class UserController {
     public ResponseEntity<PageResponse<UserResponse>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "false") boolean slice
     ) {
-        return ResponseEntity.ok(userService.getUsers(page, size, search));
+        return ResponseEntity.ok(userService.getUsers(page, size, search, slice));
     }
 
     @DeleteMapping("/{id}")
@@ -3,12 +3,14 @@ package com.movie.app.controller;
 import com.movie.app.dto.request.VideoRequest;
 import com.movie.app.dto.response.MessageResponse;
 import com.movie.app.dto.response.PageResponse;
+import com.movie.app.dto.response.SparseVideoResponse;
 import com.movie.app.dto.response.VideoResponse;
 import com.movie.app.dto.response.VideoStatsResponse;
 import com.movie.app.service.VideoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -30,12 +32,16 @@ public class VideoController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/admin")
-    public ResponseEntity<PageResponse<VideoResponse>> getAllAdminVideos(
+    public ResponseEntity<MappingJacksonValue> getAllAdminVideos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(required = false) String fields
     ) {
-        return ResponseEntity.ok(videoService.getAllAdminVideos(page, size, search));
+        PageResponse<VideoResponse> response = videoService.getAllAdminVideos(page, size, search, cursor, slice, fields);
+        return ResponseEntity.ok(SparseVideoResponse.select(response, fields));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -63,15 +69,18 @@ public class VideoController {
     }
 
     @GetMapping("/published")
-    public ResponseEntity<PageResponse<VideoResponse>> getPublishedVideos(
+    public ResponseEntity<MappingJacksonValue> getPublishedVideos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(required = false) String fields,
             Authentication authentication
     ) {
         String email = authentication.getName();
-        PageResponse<VideoResponse> response = videoService.getPublishedVideos(page, size, search, email);
-        return ResponseEntity.ok(response);
+        PageResponse<VideoResponse> response = videoService.getPublishedVideos(page, size, search, cursor, slice, fields, email);
+        return ResponseEntity.ok(SparseVideoResponse.select(response, fields));
     }
 
     @GetMapping("/featured")
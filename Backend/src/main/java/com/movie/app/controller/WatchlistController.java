@@ -2,10 +2,12 @@ package com.movie.app.controller;
 
 import com.movie.app.dto.response.MessageResponse;
 import com.movie.app.dto.response.PageResponse;
+import com.movie.app.dto.response.SparseVideoResponse;
 import com.movie.app.dto.response.VideoResponse;
 import com.movie.app.service.WatchlistService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -29,15 +31,18 @@ public class WatchlistController {
     }
 
     @GetMapping
-    public ResponseEntity<PageResponse<VideoResponse>> getWatchList(
+    public ResponseEntity<MappingJacksonValue> getWatchList(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean slice,
+            @RequestParam(required = false) String fields,
             Authentication authentication
     ) {
         String email = authentication.getName();
 
-        PageResponse<VideoResponse> response = watchlistService.getWatchListPaginated(email, page, size, search);
-        return ResponseEntity.ok(response);
+        PageResponse<VideoResponse> response = watchlistService.getWatchListPaginated(email, page, size, search, cursor, slice, fields);
+        return ResponseEntity.ok(SparseVideoResponse.select(response, fields));
     }
 }
@@ -0,0 +1,15 @@
+package com.movie.app.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class UploadSessionRequest {
+
+    @NotBlank(message = "Filename is required.")
+    private String filename;
+
+    @Positive(message = "Size must be greater than zero")
+    private long size;
+}
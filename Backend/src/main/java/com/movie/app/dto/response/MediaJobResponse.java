@@ -0,0 +1,32 @@
+package com.movie.app.dto.response;
+
+import com.movie.app.enums.MediaJobStage;
+import com.movie.app.enums.MediaJobStatus;
+import com.movie.app.enums.MediaKind;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaJobResponse {
+
+    private String uuid;
+    private MediaKind kind;
+    private MediaJobStatus status;
+    private MediaJobStage stage;
+    private int attempts;
+    private String filename;
+    private long size;
+    private String checksum;
+    private String contentType;
+    private Integer durationSeconds;
+    private boolean deduplicated;
+    private String placeholder;
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
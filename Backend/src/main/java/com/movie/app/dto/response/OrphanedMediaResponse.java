@@ -0,0 +1,26 @@
+package com.movie.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrphanedMediaResponse {
+
+    private boolean dryRun;
+    private int scanned;
+    private int withinGracePeriod;
+    private int orphaned;
+    private int unreferencedBlobs;
+    private int stalePartFiles;
+    private long reclaimableBytes;
+    private int deleted;
+    private int failed;
+    private long bytesReclaimed;
+    private List<String> orphanedUuids = new ArrayList<>();
+}
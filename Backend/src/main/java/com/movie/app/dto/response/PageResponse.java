@@ -16,4 +16,6 @@ public class PageResponse<T> {
     private Integer totalPages;
     private Integer number;
     private Integer size;
+    private String nextCursor;
+    private Boolean hasNext;
 }
@@ -0,0 +1,34 @@
+package com.movie.app.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.movie.app.util.VideoField;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Row of a {@code ?fields=} list. Serialised through {@link #select} so only the requested keys are
+ * written; full {@link VideoResponse}s keep their complete shape.
+ */
+@JsonFilter(SparseVideoResponse.FILTER)
+public class SparseVideoResponse extends VideoResponse {
+
+    public static final String FILTER = "videoFields";
+
+    /**
+     * Wraps a response body so sparse rows in it only carry {@code fields}; without a field list the
+     * body is written as is.
+     */
+    public static MappingJacksonValue select(Object body, String fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        Set<VideoField> selected = VideoField.parse(fields);
+        if (selected != null) {
+            Set<String> names = selected.stream().map(VideoField::fieldName).collect(Collectors.toSet());
+            value.setFilters(new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,16 @@
+package com.movie.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageMigrationResponse {
+
+    private int moved;
+    private int alreadyInPlace;
+    private int failed;
+    private long bytesMoved;
+}
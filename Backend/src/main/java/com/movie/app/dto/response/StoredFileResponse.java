@@ -0,0 +1,18 @@
+package com.movie.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFileResponse {
+
+    private String uuid;
+    private String filename;
+    private long size;
+    private String checksum;
+    private String contentType;
+    private boolean deduplicated;
+}
@@ -0,0 +1,18 @@
+package com.movie.app.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+
+    private String uploadId;
+    private String filename;
+    private long size;
+    private long committedOffset;
+    private long receivedBytes;
+    private boolean complete;
+}
@@ -21,6 +21,7 @@ public class VideoResponse {
     private Integer duration;
     private  String src;
     private String poster;
+    private String posterPlaceholder;
     private boolean published;
 
     private List<String> categories;
@@ -38,6 +39,7 @@ public class VideoResponse {
         response.setDuration(video.getDuration());
         response.setSrc(video.getSrc());
         response.setPoster(video.getPoster());
+        response.setPosterPlaceholder(video.getPosterPlaceholder());
         response.setPublished(video.isPublished());
         response.setCategories(video.getCategories());
         response.setCreatedAt(video.getCreatedAt());
@@ -0,0 +1,67 @@
+package com.movie.app.entity;
+
+import com.movie.app.enums.MediaJobStage;
+import com.movie.app.enums.MediaJobStatus;
+import com.movie.app.enums.MediaKind;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "media_jobs", indexes = @Index(name = "idx_media_jobs_status", columnList = "status, nextAttemptAt"))
+@Getter
+@Setter
+public class MediaJob {
+
+    @Id
+    private String uuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaKind kind;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private MediaJobStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private MediaJobStage stage;
+
+    private int attempts;
+
+    private String originalFilename;
+
+    @Column(length = 1024)
+    private String stagingPath;
+
+    private long size;
+
+    private String checksum;
+
+    private String contentType;
+
+    private Integer durationSeconds;
+
+    private boolean deduplicated;
+
+    @Column(length = 64)
+    private String placeholder;
+
+    @Column(length = 2000)
+    private String error;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
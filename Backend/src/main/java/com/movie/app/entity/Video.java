@@ -14,7 +14,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "videos")
+@Table(name = "videos", indexes = {
+        @Index(name = "idx_videos_src", columnList = "src"),
+        @Index(name = "idx_videos_poster", columnList = "poster")
+})
 @Getter
 @Setter
 public class Video {
@@ -41,6 +44,9 @@ public class Video {
     @JsonIgnore
     private String posterUuid;
 
+    @Column(name = "poster_placeholder", length = 64)
+    private String posterPlaceholder;
+
     @Column(nullable = false)
     private boolean published = false;
 
@@ -49,6 +55,11 @@ public class Video {
     @Column(name = "category")
     private List<String> categories = new ArrayList<>();
 
+    // Flattened copy of the categories for the generated search_vector column (see schema.sql)
+    @Column(name = "search_categories", columnDefinition = "text")
+    @JsonIgnore
+    private String searchCategories;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -61,20 +72,33 @@ public class Video {
     @JsonProperty("isInWatchList")
     private Boolean isInWatchList;
 
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+        this.searchCategories = categories == null || categories.isEmpty() ? null : String.join(" ", categories);
+    }
+
     @JsonProperty("src")
     public String getSrc() {
-        if (srcUuid != null && !srcUuid.isEmpty()) {
-            String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
-            return baseUrl + "/api/files/video/" + srcUuid;
-        }
-        return null;
+        return videoUrl(srcUuid);
     }
 
     @JsonProperty("poster")
     public String getPoster() {
-        if (posterUuid != null && !posterUuid.isEmpty()) {
+        return imageUrl(posterUuid);
+    }
+
+    public static String videoUrl(String uuid) {
+        return mediaUrl("/api/files/video/", uuid);
+    }
+
+    public static String imageUrl(String uuid) {
+        return mediaUrl("/api/files/image/", uuid);
+    }
+
+    private static String mediaUrl(String path, String uuid) {
+        if (uuid != null && !uuid.isEmpty()) {
             String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().toUriString();
-            return baseUrl + "/api/files/image/" + posterUuid;
+            return baseUrl + path + uuid;
         }
         return null;
     }
@@ -0,0 +1,18 @@
+package com.movie.app.enums;
+
+import java.util.List;
+
+public enum MediaJobStage {
+    FASTSTART,
+    CHECKSUM,
+    PROBE,
+    PUBLISH,
+    PLACEHOLDER,
+    VARIANTS;
+
+    public static List<MediaJobStage> stagesFor(MediaKind kind) {
+        return kind == MediaKind.VIDEO
+                ? List.of(FASTSTART, CHECKSUM, PROBE, PUBLISH)
+                : List.of(CHECKSUM, PUBLISH, PLACEHOLDER, VARIANTS);
+    }
+}
@@ -0,0 +1,8 @@
+package com.movie.app.enums;
+
+public enum MediaJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.movie.app.enums;
+
+public enum MediaKind {
+    VIDEO,
+    IMAGE
+}
@@ -0,0 +1,7 @@
+package com.movie.app.exception;
+
+public class InvalidFieldsException extends RuntimeException {
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
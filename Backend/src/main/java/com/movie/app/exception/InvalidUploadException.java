@@ -0,0 +1,7 @@
+package com.movie.app.exception;
+
+public class InvalidUploadException extends RuntimeException {
+    public InvalidUploadException(String message) {
+        super(message);
+    }
+}
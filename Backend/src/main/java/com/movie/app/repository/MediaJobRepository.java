@@ -0,0 +1,37 @@
+package com.movie.app.repository;
+
+import com.movie.app.entity.MediaJob;
+import com.movie.app.enums.MediaJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MediaJobRepository extends JpaRepository<MediaJob, String> {
+
+    List<MediaJob> findTop100ByStatusInAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+            Collection<MediaJobStatus> statuses, Instant now);
+
+    List<MediaJob> findByStatusIn(Collection<MediaJobStatus> statuses);
+
+    /**
+     * Marks a due job as running until {@code leaseUntil} in a single conditional update, so only one
+     * worker across all instances gets it. Returns 0 when the job is not due or was claimed by someone else.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaJob j SET j.status = :running, j.nextAttemptAt = :leaseUntil " +
+            "WHERE j.uuid = :uuid AND j.status IN :claimable AND j.nextAttemptAt <= :now")
+    int claim(@Param("uuid") String uuid,
+              @Param("claimable") Collection<MediaJobStatus> claimable,
+              @Param("running") MediaJobStatus running,
+              @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+}
@@ -3,8 +3,8 @@ package com.movie.app.repository;
 import com.movie.app.entity.User;
 import com.movie.app.entity.Video;
 import com.movie.app.enums.Role;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,7 +29,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE " +
             "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<User> searchUsers(@Param("search") String search, Pageable pageable);
+    Slice<User> searchUsers(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT count(u) FROM User u WHERE " +
+            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))")
+    long countSearchUsers(@Param("search") String search);
+
+    Slice<User> findAllBy(Pageable pageable);
 
     long countByRole(Role role);
 
@@ -39,8 +46,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT v FROM User u JOIN u.watchlist v WHERE u.id = :userId AND v.published = true AND (" +
             "LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Video> searchWatchlistByUserId(@Param("userId") Long userId, @Param("search") String search, Pageable pageable);
+    Slice<Video> searchWatchlistByUserId(@Param("userId") Long userId, @Param("search") String search, Pageable pageable);
+
+    @Query("SELECT count(v) FROM User u JOIN u.watchlist v WHERE u.id = :userId AND v.published = true AND (" +
+            "LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%')))")
+    long countSearchWatchlistByUserId(@Param("userId") Long userId, @Param("search") String search);
 
     @Query("SELECT v FROM User u JOIN u.watchlist v WHERE u.id = :userId AND v.published = true ")
-    Page<Video> findWatchlistByUserId(@Param("userId") Long userId, Pageable pageable);
+    Slice<Video> findWatchlistByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT count(v) FROM User u JOIN u.watchlist v WHERE u.id = :userId AND v.published = true ")
+    long countWatchlistByUserId(@Param("userId") Long userId);
 }
@@ -0,0 +1,55 @@
+package com.movie.app.repository;
+
+import com.movie.app.util.PageCursor;
+import com.movie.app.util.VideoField;
+import jakarta.persistence.Tuple;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Video lists that select only the requested columns, for {@code ?fields=} requests. Every row
+ * also carries the id and creation time so pages can be stitched and cursors built.
+ */
+public interface VideoProjectionRepository {
+
+    List<Tuple> findVideoFields(Set<VideoField> fields, Filter filter, long offset, int limit);
+
+    static Long idOf(Tuple row) {
+        return row.get(VideoField.ID.alias(), Long.class);
+    }
+
+    static PageCursor cursorOf(Tuple row) {
+        return new PageCursor(row.get(VideoField.CREATED_AT.alias(), Instant.class), idOf(row));
+    }
+
+    /**
+     * Which videos a projection returns and in what order: newest first, by id for the admin list,
+     * and unordered for an id lookup (the caller restores the rank order).
+     */
+    record Filter(boolean publishedOnly, Long watchlistUserId, String search, PageCursor before,
+                  Collection<Long> ids, boolean orderById) {
+
+        public static Filter videos(boolean publishedOnly, String search) {
+            return new Filter(publishedOnly, null, search, null, null, false);
+        }
+
+        public static Filter watchlist(Long userId, String search) {
+            return new Filter(true, userId, search, null, null, false);
+        }
+
+        public static Filter ids(Collection<Long> ids) {
+            return new Filter(false, null, null, null, ids, false);
+        }
+
+        public Filter before(PageCursor cursor) {
+            return new Filter(publishedOnly, watchlistUserId, search, cursor, ids, false);
+        }
+
+        public Filter orderedById() {
+            return new Filter(publishedOnly, watchlistUserId, search, before, ids, true);
+        }
+    }
+}
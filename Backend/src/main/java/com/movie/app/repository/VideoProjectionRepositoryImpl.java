@@ -0,0 +1,75 @@
+package com.movie.app.repository;
+
+import com.movie.app.util.VideoField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class VideoProjectionRepositoryImpl implements VideoProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findVideoFields(Set<VideoField> fields, Filter filter, long offset, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT ")
+                .append(VideoField.ID.path()).append(" AS ").append(VideoField.ID.alias()).append(", ")
+                .append(VideoField.CREATED_AT.path()).append(" AS ").append(VideoField.CREATED_AT.alias());
+        for (VideoField field : fields) {
+            if (field.isColumn() && field != VideoField.ID && field != VideoField.CREATED_AT) {
+                jpql.append(", ").append(field.path()).append(" AS ").append(field.alias());
+            }
+        }
+
+        List<String> conditions = new ArrayList<>();
+        if (filter.watchlistUserId() != null) {
+            jpql.append(" FROM User u JOIN u.watchlist v");
+            conditions.add("u.id = :userId");
+        } else {
+            jpql.append(" FROM Video v");
+        }
+        if (filter.publishedOnly()) {
+            conditions.add("v.published = true");
+        }
+        boolean searching = filter.search() != null && !filter.search().isEmpty();
+        if (searching) {
+            conditions.add("(LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                    "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%')))");
+        }
+        if (filter.before() != null) {
+            conditions.add("(v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id))");
+        }
+        if (filter.ids() != null) {
+            conditions.add("v.id IN :ids");
+        }
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (filter.orderById()) {
+            jpql.append(" ORDER BY v.id DESC");
+        } else if (filter.ids() == null) {
+            jpql.append(" ORDER BY v.createdAt DESC, v.id DESC");
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (filter.watchlistUserId() != null) {
+            query.setParameter("userId", filter.watchlistUserId());
+        }
+        if (searching) {
+            query.setParameter("search", filter.search());
+        }
+        if (filter.before() != null) {
+            query.setParameter("createdAt", filter.before().createdAt());
+            query.setParameter("id", filter.before().id());
+        }
+        if (filter.ids() != null) {
+            query.setParameter("ids", filter.ids());
+        }
+        return query.setFirstResult(Math.toIntExact(offset)).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,22 +1,72 @@
 package com.movie.app.repository;
 
 import com.movie.app.entity.Video;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
-public interface VideoRepository extends JpaRepository<Video, Long> {
+public interface VideoRepository extends JpaRepository<Video, Long>, VideoProjectionRepository {
 
     @Query("SELECT v FROM Video v WHERE " +
             "LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Video> searchVideos(@Param("search") String search, Pageable pageable);
+    Slice<Video> searchVideos(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT count(v) FROM Video v WHERE " +
+            "LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%'))")
+    long countSearchVideos(@Param("search") String search);
+
+    Slice<Video> findAllBy(Pageable pageable);
+
+    @Query(value = "SELECT v.* FROM videos v, " +
+            "(SELECT websearch_to_tsquery('english', :search) && to_tsquery('english', :prefix) AS query) search " +
+            "WHERE v.search_vector @@ query " +
+            "ORDER BY ts_rank(v.search_vector, query) DESC, v.id DESC",
+            nativeQuery = true)
+    Slice<Video> fullTextSearchVideos(@Param("search") String search, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query(value = "SELECT v.id FROM videos v, " +
+            "(SELECT websearch_to_tsquery('english', :search) && to_tsquery('english', :prefix) AS query) search " +
+            "WHERE v.search_vector @@ query " +
+            "ORDER BY ts_rank(v.search_vector, query) DESC, v.id DESC",
+            nativeQuery = true)
+    Slice<Long> fullTextSearchVideoIds(@Param("search") String search, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query(value = "SELECT count(*) FROM videos v " +
+            "WHERE v.search_vector @@ (websearch_to_tsquery('english', :search) && to_tsquery('english', :prefix))",
+            nativeQuery = true)
+    long countFullTextSearchVideos(@Param("search") String search, @Param("prefix") String prefix);
+
+    @Query(value = "SELECT v.* FROM videos v, " +
+            "(SELECT websearch_to_tsquery('english', :search) && to_tsquery('english', :prefix) AS query) search " +
+            "WHERE v.published = true AND v.search_vector @@ query " +
+            "ORDER BY ts_rank(v.search_vector, query) DESC, v.created_at DESC",
+            nativeQuery = true)
+    Slice<Video> fullTextSearchPublishedVideos(@Param("search") String search, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query(value = "SELECT v.id FROM videos v, " +
+            "(SELECT websearch_to_tsquery('english', :search) && to_tsquery('english', :prefix) AS query) search " +
+            "WHERE v.published = true AND v.search_vector @@ query " +
+            "ORDER BY ts_rank(v.search_vector, query) DESC, v.created_at DESC",
+            nativeQuery = true)
+    Slice<Long> fullTextSearchPublishedVideoIds(@Param("search") String search, @Param("prefix") String prefix, Pageable pageable);
+
+    @Query(value = "SELECT count(*) FROM videos v " +
+            "WHERE v.published = true AND v.search_vector @@ (websearch_to_tsquery('english', :search) && to_tsquery('english', :prefix))",
+            nativeQuery = true)
+    long countFullTextSearchPublishedVideos(@Param("search") String search, @Param("prefix") String prefix);
 
     @Query("select count(v) from Video v where v.published=true ")
     long getTotalDuration();
@@ -28,11 +78,54 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
             "LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%'))) " +
             "ORDER BY v.createdAt DESC")
-    Page<Video> searchPublishedVideos(String trim, Pageable pageable);
+    Slice<Video> searchPublishedVideos(String trim, Pageable pageable);
+
+    @Query("SELECT count(v) FROM Video v WHERE v.published = true AND (" +
+            "LOWER(v.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(v.description) LIKE LOWER(CONCAT('%', :search, '%')))")
+    long countSearchPublishedVideos(@Param("search") String search);
 
     @Query("select v from  Video v where v.published=true order by v.createdAt desc ")
-    Page<Video> findPublishVideoPageable(Pageable pageable);
+    Slice<Video> findPublishVideoPageable(Pageable pageable);
+
+    long countByPublished(boolean published);
+
+    @Query(value = "SELECT * FROM videos v WHERE v.published = true AND (v.created_at, v.id) < (:createdAt, :id) " +
+            "ORDER BY v.created_at DESC, v.id DESC LIMIT :limit", nativeQuery = true)
+    List<Video> findPublishedVideosBefore(@Param("createdAt") Instant createdAt, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM videos v WHERE (v.created_at, v.id) < (:createdAt, :id) " +
+            "ORDER BY v.created_at DESC, v.id DESC LIMIT :limit", nativeQuery = true)
+    List<Video> findVideosBefore(@Param("createdAt") Instant createdAt, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = "SELECT v.* FROM user_watchlist w JOIN videos v ON v.id = w.video_id " +
+            "WHERE w.user_id = :userId AND v.published = true AND (v.created_at, v.id) < (:createdAt, :id) " +
+            "ORDER BY v.created_at DESC, v.id DESC LIMIT :limit", nativeQuery = true)
+    List<Video> findWatchlistVideosBefore(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+                                          @Param("id") Long id, @Param("limit") int limit);
+
+    @Query("SELECT v.id, c FROM Video v JOIN v.categories c WHERE v.id IN :ids")
+    List<Object[]> findCategoriesByVideoIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select v.id from Video v where v.published = true")
+    List<Long> findPublishedIds();
+
+    @Query("select v.id, v.title, v.description, v.published from Video v where v.id > :afterId order by v.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select v.srcUuid from Video v where v.srcUuid in :uuids")
+    Set<String> findReferencedSrcUuids(@Param("uuids") Collection<String> uuids);
+
+    @Query("select v.posterUuid from Video v where v.posterUuid in :uuids")
+    Set<String> findReferencedPosterUuids(@Param("uuids") Collection<String> uuids);
+
+    @Modifying
+    @Transactional
+    @Query("update Video v set v.posterPlaceholder = :placeholder where v.posterUuid = :posterUuid and v.posterPlaceholder is null")
+    int fillMissingPosterPlaceholder(@Param("posterUuid") String posterUuid, @Param("placeholder") String placeholder);
 
-    @Query("select v from Video v where v.published=true order by function('RANDOM')")
-    List<Video> findRandomPublishedVideos(Pageable pageable);
+    @Modifying
+    @Transactional
+    @Query("update Video v set v.duration = :duration where v.srcUuid = :srcUuid")
+    int updateDurationBySrcUuid(@Param("srcUuid") String srcUuid, @Param("duration") Integer duration);
 }
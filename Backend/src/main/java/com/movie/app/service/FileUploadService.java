@@ -1,15 +1,47 @@
 package com.movie.app.service;
 
+import com.movie.app.dto.request.UploadSessionRequest;
+import com.movie.app.dto.response.MediaJobResponse;
+import com.movie.app.dto.response.OrphanedMediaResponse;
+import com.movie.app.dto.response.StorageMigrationResponse;
+import com.movie.app.dto.response.StoredFileResponse;
+import com.movie.app.dto.response.UploadSessionResponse;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.util.Optional;
+
 public interface FileUploadService {
     String storeVideoFile(MultipartFile file);
 
+    UploadSessionResponse createVideoUploadSession(UploadSessionRequest request);
+
+    UploadSessionResponse writeVideoUploadChunk(String uploadId, long offset, long length, InputStream body);
+
+    UploadSessionResponse getVideoUploadSession(String uploadId);
+
+    UploadSessionResponse completeVideoUploadSession(String uploadId);
+
     String storeImageFile(MultipartFile file);
 
-    ResponseEntity<Resource> serveVideo(String uuid, String rangeHeader);
+    MediaJobResponse getJob(String uuid);
+
+    StoredFileResponse storeVideoStream(String originalFilename, InputStream body);
+
+    StoredFileResponse storeImageStream(String originalFilename, InputStream body);
+
+    Optional<Integer> getVideoDuration(String uuid);
+
+    Optional<String> getImagePlaceholder(String uuid);
+
+    ResponseEntity<Resource> serveVideo(String uuid, HttpHeaders requestHeaders);
+
+    ResponseEntity<Resource> serveImage(String uuid, Integer width, Integer height, HttpHeaders requestHeaders);
+
+    StorageMigrationResponse migrateStorageLayout();
 
-    ResponseEntity<Resource> serveImage(String uuid);
+    OrphanedMediaResponse collectOrphanedMedia(boolean dryRun);
 }
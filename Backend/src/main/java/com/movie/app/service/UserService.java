@@ -10,7 +10,7 @@ public interface UserService {
 
     MessageResponse updateUser(Long id, UserRequest userRequest);
 
-    PageResponse<UserResponse> getUsers(int page, int size, String search);
+    PageResponse<UserResponse> getUsers(int page, int size, String search, boolean slice);
 
     MessageResponse deleteUser(Long id, String currentUser);
 
@@ -12,7 +12,7 @@ import java.util.List;
 public interface VideoService {
     MessageResponse createVideoByAdmin(@Valid VideoRequest videoRequest);
 
-    PageResponse<VideoResponse> getAllAdminVideos(int page, int size, String search);
+    PageResponse<VideoResponse> getAllAdminVideos(int page, int size, String search, String cursor, boolean slice, String fields);
 
     MessageResponse updateVideoByAdmin(Long id, @Valid VideoRequest videoRequest);
 
@@ -22,7 +22,7 @@ public interface VideoService {
 
     VideoStatsResponse getAdminStats();
 
-    PageResponse<VideoResponse> getPublishedVideos(int page, int size, String search, String email);
+    PageResponse<VideoResponse> getPublishedVideos(int page, int size, String search, String cursor, boolean slice, String fields, String email);
 
     List<VideoResponse> getFeaturedVideos();
 }
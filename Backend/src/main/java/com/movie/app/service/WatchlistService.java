@@ -9,5 +9,5 @@ public interface WatchlistService {
 
     MessageResponse removeWatchList(String email, Long videoId);
 
-    PageResponse<VideoResponse> getWatchListPaginated(String email, int page, int size, String search);
+    PageResponse<VideoResponse> getWatchListPaginated(String email, int page, int size, String search, String cursor, boolean slice, String fields);
 }
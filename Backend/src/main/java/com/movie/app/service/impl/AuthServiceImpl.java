@@ -15,6 +15,7 @@ import com.movie.app.repository.UserRepository;
 import com.movie.app.security.JwtUtils;
 import com.movie.app.service.AuthService;
 import com.movie.app.service.EmailService;
+import com.movie.app.util.CountCache;
 import com.movie.app.util.ServiceUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +35,7 @@ public class AuthServiceImpl implements AuthService {
     private final EmailService emailService;
     private final JwtUtils jwtUtils;
     private final ServiceUtils serviceUtils;
+    private final CountCache countCache;
 
     @Override
     public MessageResponse signup(UserRequest userRequest) {
@@ -53,6 +55,7 @@ public class AuthServiceImpl implements AuthService {
         user.setVerificationTokenExpiresAt(Instant.now().plusSeconds(86400));
 
         userRepository.save(user);
+        countCache.invalidate("users");
         emailService.sendVerificationEmail(userRequest.getEmail(), verifivationToken);
         return new MessageResponse("Registration successful. Please check your email and verify your account.");
     }
@@ -1,32 +1,125 @@
 package com.movie.app.service.impl;
 
+import com.movie.app.dto.request.UploadSessionRequest;
+import com.movie.app.dto.response.MediaJobResponse;
+import com.movie.app.dto.response.OrphanedMediaResponse;
+import com.movie.app.dto.response.StorageMigrationResponse;
+import com.movie.app.dto.response.StoredFileResponse;
+import com.movie.app.dto.response.UploadSessionResponse;
+import com.movie.app.entity.MediaJob;
+import com.movie.app.enums.MediaJobStage;
+import com.movie.app.enums.MediaJobStatus;
+import com.movie.app.enums.MediaKind;
+import com.movie.app.exception.InvalidUploadException;
+import com.movie.app.exception.ResourceNotFoundException;
+import com.movie.app.repository.MediaJobRepository;
+import com.movie.app.repository.VideoRepository;
 import com.movie.app.service.FileUploadService;
+import com.movie.app.util.BlurHash;
+import com.movie.app.util.ContentAddressedStore;
+import com.movie.app.util.DirectBufferCache;
 import com.movie.app.util.FileHandlerUtil;
+import com.movie.app.util.ImageVariantStore;
+import com.movie.app.util.IoRateLimiter;
+import com.movie.app.util.MediaFileIndex;
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import com.movie.app.util.Mp4FastStart;
+import com.movie.app.util.ReadAheadPrefetcher;
+import com.movie.app.util.ShardedStorageLayout;
+import com.movie.app.util.UploadSession;
+import com.movie.app.util.VideoSegmentCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j; // Loglama eklendi
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileUploadServiceImpl implements FileUploadService {
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final CacheControl IMMUTABLE_MEDIA_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
     private Path videoStorageLocation;
     private Path imageStorageLocation;
+    private ShardedStorageLayout videoLayout;
+    private ShardedStorageLayout imageLayout;
+    private MediaFileIndex videoIndex;
+    private MediaFileIndex imageIndex;
+    private ContentAddressedStore videoContentStore;
+    private ContentAddressedStore imageContentStore;
+    private ImageVariantStore imageVariantStore;
+    private final Map<String, UploadSession> uploadSessions = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final MediaJobRepository mediaJobRepository;
+    private final VideoRepository videoRepository;
+    private final Set<String> inFlightJobs = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor jobWorkers;
+    private ScheduledExecutorService jobPoller;
+    private ScheduledExecutorService orphanCollector;
+    private ScheduledExecutorService uploadSessionSweeper;
+    private final Object orphanCollectionLock = new Object();
+    private DirectBufferCache posterCache;
+    private VideoSegmentCache videoSegmentCache;
+    private ReadAheadPrefetcher readAheadPrefetcher;
 
     @Value("${file.upload.video-dir:uploads/videos}")
     private String videoDir;
@@ -34,43 +127,473 @@ public class FileUploadServiceImpl implements FileUploadService {
     @Value("${file.upload.image-dir:uploads/images}")
     private String imageDir;
 
+    @Value("${file.upload.chunk.max-size:67108864}")
+    private long maxChunkSize;
+
+    @Value("${file.upload.stream.max-size:2147483648}")
+    private long maxStreamUploadSize;
+
+    @Value("${file.upload.session.idle-timeout-ms:3600000}")
+    private long uploadSessionIdleTimeoutMillis;
+
+    @Value("${file.upload.session.sweep-interval-ms:60000}")
+    private long uploadSessionSweepIntervalMillis;
+
+    @Value("${file.storage.sharded:true}")
+    private boolean shardedStorage;
+
+    @Value("${file.storage.video-roots:}")
+    private List<String> videoRoots;
+
+    @Value("${file.storage.image-roots:}")
+    private List<String> imageRoots;
+
+    @Value("${file.storage.content-addressed:false}")
+    private boolean contentAddressed;
+
+    @Value("${file.upload.video.faststart:true}")
+    private boolean fastStart;
+
+    @Value("${file.image.variant-widths:160,320,480,640,960}")
+    private List<Integer> imageVariantWidths;
+
+    @Value("${file.cache.poster.max-bytes:67108864}")
+    private long posterCacheMaxBytes;
+
+    @Value("${file.cache.poster.max-entry-bytes:2097152}")
+    private long posterCacheMaxEntryBytes;
+
+    @Value("${file.cache.video-segments.max-bytes:268435456}")
+    private long videoSegmentCacheMaxBytes;
+
+    @Value("${file.cache.video-segments.chunk-size:1048576}")
+    private int videoSegmentChunkSize;
+
+    @Value("${file.serve.bound-open-ranges:true}")
+    private boolean boundOpenRanges;
+
+    @Value("${file.serve.max-open-range-bytes:4194304}")
+    private long maxOpenRangeBytes;
+
+    @Value("${file.serve.read-ahead.enabled:true}")
+    private boolean readAheadEnabled;
+
+    @Value("${file.serve.read-ahead.chunks:4}")
+    private int readAheadChunks;
+
+    @Value("${file.serve.read-ahead.chunk-size:1048576}")
+    private int readAheadChunkSize;
+
+    @Value("${file.serve.read-ahead.max-bytes:67108864}")
+    private long readAheadMaxBytes;
+
+    @Value("${file.serve.read-ahead.threads:2}")
+    private int readAheadThreads;
+
+    @Value("${file.serve.read-ahead.expiry-ms:30000}")
+    private long readAheadExpiryMillis;
+
+    @Value("${file.jobs.workers:0}")
+    private int jobWorkerCount;
+
+    @Value("${file.jobs.max-attempts:3}")
+    private int jobMaxAttempts;
+
+    @Value("${file.jobs.retry-backoff-ms:5000}")
+    private long jobRetryBackoffMillis;
+
+    @Value("${file.jobs.poll-interval-ms:5000}")
+    private long jobPollIntervalMillis;
+
+    @Value("${file.jobs.lease-ms:600000}")
+    private long jobLeaseMillis;
+
+    @Value("${file.gc.enabled:true}")
+    private boolean orphanCollectionEnabled;
+
+    @Value("${file.gc.interval-ms:3600000}")
+    private long orphanCollectionIntervalMillis;
+
+    @Value("${file.gc.grace-period-hours:24}")
+    private long orphanGracePeriodHours;
+
+    @Value("${file.gc.batch-size:500}")
+    private int orphanBatchSize;
+
+    @Value("${file.gc.max-bytes-per-second:52428800}")
+    private long orphanMaxBytesPerSecond;
+
+    @Value("${file.gc.max-files-per-second:20}")
+    private long orphanMaxFilesPerSecond;
+
+    @Value("${file.serve.video-mode:sendfile}")
+    private String videoServeMode;
+
     @PostConstruct
     public void init() {
         this.videoStorageLocation = Paths.get(this.videoDir).toAbsolutePath().normalize();
         this.imageStorageLocation = Paths.get(this.imageDir).toAbsolutePath().normalize();
 
+        this.videoLayout = new ShardedStorageLayout(videoStorageLocation, toPaths(videoRoots), shardedStorage);
+        this.imageLayout = new ShardedStorageLayout(imageStorageLocation, toPaths(imageRoots), shardedStorage);
+
         try {
-            Files.createDirectories(this.videoStorageLocation);
-            Files.createDirectories(this.imageStorageLocation);
+            videoLayout.createDirectories();
+            imageLayout.createDirectories();
+            this.imageVariantStore = new ImageVariantStore(imageStorageLocation, imageVariantWidths);
+            if (contentAddressed) {
+                this.videoContentStore = new ContentAddressedStore(videoLayout.directories());
+                this.imageContentStore = new ContentAddressedStore(imageLayout.directories());
+            }
         } catch (Exception e) {
             throw new RuntimeException("Cannot create directory for uploading files", e);
         }
+
+        this.videoIndex = new MediaFileIndex(videoLayout.directories(), FileHandlerUtil::detectVideoContentType);
+        this.imageIndex = new MediaFileIndex(imageLayout.directories(), FileHandlerUtil::detectImageContentType);
+        try {
+            videoIndex.rebuild();
+            imageIndex.rebuild();
+            log.info("Indexed {} video and {} image files", videoIndex.size(), imageIndex.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot index uploaded files", e);
+        }
+
+        this.posterCache = new DirectBufferCache(posterCacheMaxBytes, posterCacheMaxEntryBytes);
+        registerCacheMetrics("media.poster.cache", posterCache);
+
+        if (isSegmentCacheMode()) {
+            this.videoSegmentCache = new VideoSegmentCache(videoSegmentCacheMaxBytes, videoSegmentChunkSize);
+            registerSegmentCacheMetrics("media.video.segment.cache", videoSegmentCache);
+        } else if (readAheadEnabled) {
+            this.readAheadPrefetcher = new ReadAheadPrefetcher(readAheadChunkSize, readAheadChunks,
+                    readAheadMaxBytes, readAheadThreads, readAheadExpiryMillis);
+            registerReadAheadMetrics("media.video.readahead", readAheadPrefetcher);
+        }
+
+        restoreUploadSessions();
+        deleteStalePartFiles(new OrphanedMediaResponse());
+        startUploadSessionSweeper();
+        startJobWorkers();
+        if (orphanCollectionEnabled) {
+            startOrphanCollector();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (readAheadPrefetcher != null) {
+            readAheadPrefetcher.close();
+        }
+        uploadSessionSweeper.shutdownNow();
+        jobPoller.shutdownNow();
+        jobWorkers.shutdown();
+        if (orphanCollector != null) {
+            orphanCollector.shutdownNow();
+        }
+    }
+
+    private void startJobWorkers() {
+        int workers = jobWorkerCount > 0 ? jobWorkerCount : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.jobWorkers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workers * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "media-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.jobPoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "media-job-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Picks up jobs left over from a restart, jobs due for a retry and jobs the full pool turned away
+        jobPoller.scheduleWithFixedDelay(this::dispatchDueJobs, jobPollIntervalMillis, jobPollIntervalMillis, TimeUnit.MILLISECONDS);
+        Gauge.builder("media.jobs.active", jobWorkers, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("media.jobs.queued", jobWorkers, executor -> executor.getQueue().size()).register(meterRegistry);
+    }
+
+    private void startUploadSessionSweeper() {
+        this.uploadSessionSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upload-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        uploadSessionSweeper.scheduleWithFixedDelay(this::expireIdleUploadSessions,
+                uploadSessionSweepIntervalMillis, uploadSessionSweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops sessions that received no chunk within the idle timeout, closing their channel and
+     * deleting their preallocated part file.
+     */
+    private void expireIdleUploadSessions() {
+        Instant cutoff = Instant.now().minusMillis(uploadSessionIdleTimeoutMillis);
+        uploadSessions.forEach((uploadId, session) -> {
+            if (session.isIdleSince(cutoff) && uploadSessions.remove(uploadId, session)) {
+                try {
+                    session.abort();
+                    log.info("Expired idle upload session {} ({} of {} bytes received)",
+                            uploadId, session.receivedBytes(), session.getSize());
+                } catch (IOException ex) {
+                    log.warn("Could not clean up expired upload session {}", uploadId, ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reopens the upload sessions of the previous run from their sidecars, so clients resume where the
+     * last committed chunk left off. Sidecars that no longer match a part file are dropped, and the part
+     * file, if any, is left to the stale part file sweep.
+     */
+    private void restoreUploadSessions() {
+        for (Path directory : videoLayout.directories()) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            List<Path> sessionFiles;
+            try (Stream<Path> files = Files.walk(directory, 3)) {
+                sessionFiles = files.filter(UploadSession::isSessionFile)
+                        .filter(path -> !isInHiddenDirectory(directory, path))
+                        .toList();
+            } catch (IOException ex) {
+                log.warn("Could not scan {} for upload sessions", directory, ex);
+                continue;
+            }
+            for (Path sessionFile : sessionFiles) {
+                try {
+                    UploadSession session = UploadSession.restore(sessionFile);
+                    uploadSessions.put(session.getUploadId(), session);
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Dropping unusable upload session {}", sessionFile, ex);
+                    deleteQuietly(sessionFile);
+                }
+            }
+        }
+        if (!uploadSessions.isEmpty()) {
+            log.info("Restored {} upload sessions", uploadSessions.size());
+        }
+    }
+
+    private static boolean isInHiddenDirectory(Path directory, Path path) {
+        Path relative = directory.relativize(path);
+        return relative.getNameCount() > 1 && relative.getName(0).toString().startsWith(".");
+    }
+
+    private void startOrphanCollector() {
+        this.orphanCollector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "media-orphan-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        orphanCollector.scheduleWithFixedDelay(() -> {
+            try {
+                collectOrphanedMedia(false);
+            } catch (RuntimeException ex) {
+                log.warn("Orphaned media collection failed", ex);
+            }
+        }, orphanCollectionIntervalMillis, orphanCollectionIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static List<Path> toPaths(List<String> directories) {
+        return directories.stream()
+                .filter(directory -> !directory.isBlank())
+                .map(directory -> Paths.get(directory.trim()).toAbsolutePath().normalize())
+                .toList();
+    }
+
+    private void registerCacheMetrics(String name, DirectBufferCache cache) {
+        FunctionCounter.builder(name + ".hits", cache, DirectBufferCache::hitCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".misses", cache, DirectBufferCache::missCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".evictions", cache, DirectBufferCache::evictionCount).register(meterRegistry);
+        Gauge.builder(name + ".hit.ratio", cache, DirectBufferCache::hitRatio).register(meterRegistry);
+        Gauge.builder(name + ".size", cache, DirectBufferCache::sizeInBytes).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(name + ".entries", cache, DirectBufferCache::entryCount).register(meterRegistry);
+    }
+
+    private void registerSegmentCacheMetrics(String name, VideoSegmentCache cache) {
+        FunctionCounter.builder(name + ".hits", cache, VideoSegmentCache::hitCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".misses", cache, VideoSegmentCache::missCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".evictions", cache, VideoSegmentCache::evictionCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".served", cache, VideoSegmentCache::bytesFromCache)
+                .tag("source", "cache").baseUnit("bytes").register(meterRegistry);
+        FunctionCounter.builder(name + ".served", cache, VideoSegmentCache::bytesFromDisk)
+                .tag("source", "disk").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(name + ".hit.ratio", cache, VideoSegmentCache::hitRatio).register(meterRegistry);
+        Gauge.builder(name + ".size", cache, VideoSegmentCache::sizeInBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    private void registerReadAheadMetrics(String name, ReadAheadPrefetcher prefetcher) {
+        FunctionCounter.builder(name + ".issued", prefetcher, ReadAheadPrefetcher::issuedCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".hits", prefetcher, ReadAheadPrefetcher::hitCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".wasted", prefetcher, ReadAheadPrefetcher::wastedCount).register(meterRegistry);
+        FunctionCounter.builder(name + ".skipped", prefetcher, ReadAheadPrefetcher::skippedCount).register(meterRegistry);
+        Gauge.builder(name + ".hit.ratio", prefetcher, ReadAheadPrefetcher::hitRatio).register(meterRegistry);
+        Gauge.builder(name + ".waste.ratio", prefetcher, ReadAheadPrefetcher::wasteRatio).register(meterRegistry);
+        Gauge.builder(name + ".size", prefetcher, ReadAheadPrefetcher::sizeInBytes).baseUnit("bytes").register(meterRegistry);
     }
 
     @Override
     public String storeVideoFile(MultipartFile file) {
-        return storeFile(file, videoStorageLocation);
+        return enqueueUpload(file, MediaKind.VIDEO, videoLayout);
+    }
+
+    @Override
+    public UploadSessionResponse createVideoUploadSession(UploadSessionRequest request) {
+        if (request.getSize() > maxStreamUploadSize) {
+            throw new InvalidUploadException("File exceeds the maximum upload size of " + maxStreamUploadSize + " bytes");
+        }
+        String uploadId = UUID.randomUUID().toString();
+        String filename = uploadId + "." + FileHandlerUtil.extractFileExtension(request.getFilename());
+        Path partFile = videoLayout.resolve(filename).resolveSibling(filename + MediaFileIndex.PARTIAL_SUFFIX);
+        try {
+            Files.createDirectories(partFile.getParent());
+            UploadSession session = new UploadSession(uploadId, request.getFilename(), request.getSize(), partFile);
+            uploadSessions.put(uploadId, session);
+            return session.toResponse();
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to create upload session for " + request.getFilename(), ex);
+        }
+    }
+
+    @Override
+    public UploadSessionResponse writeVideoUploadChunk(String uploadId, long offset, long length, InputStream body) {
+        UploadSession session = findUploadSession(uploadId);
+        if (offset < 0 || offset >= session.getSize()) {
+            throw new InvalidUploadException("Chunk offset " + offset + " is outside of the upload size " + session.getSize());
+        }
+        // Checked before anything is written, so an oversize chunk leaves no bytes behind
+        long maxLength = Math.min(maxChunkSize, session.getSize() - offset);
+        if (length < 1 || length > maxLength) {
+            throw new InvalidUploadException("Chunk at offset " + offset + " must contain between 1 and "
+                    + maxLength + " bytes");
+        }
+        try {
+            long written = session.writeChunk(offset, body, length);
+            if (written < length) {
+                throw new InvalidUploadException("Chunk at offset " + offset + " ended after " + written
+                        + " of " + length + " bytes");
+            }
+            return session.toResponse();
+        } catch (ClosedChannelException ex) {
+            throw new ResourceNotFoundException("Upload session not found: " + uploadId);
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to write chunk for upload " + uploadId, ex);
+        }
+    }
+
+    @Override
+    public UploadSessionResponse getVideoUploadSession(String uploadId) {
+        return findUploadSession(uploadId).toResponse();
+    }
+
+    @Override
+    public UploadSessionResponse completeVideoUploadSession(String uploadId) {
+        UploadSession session = findUploadSession(uploadId);
+        if (!session.isComplete()) {
+            throw new InvalidUploadException("Upload " + uploadId + " is incomplete, committed "
+                    + session.committedOffset() + " of " + session.getSize() + " bytes");
+        }
+        if (!uploadSessions.remove(uploadId, session)) {
+            throw new ResourceNotFoundException("Upload session not found: " + uploadId);
+        }
+        Path partFile = session.getPartFile();
+        String partName = partFile.getFileName().toString();
+        Path targetLocation = partFile.resolveSibling(partName.substring(0, partName.length() - MediaFileIndex.PARTIAL_SUFFIX.length()));
+        try {
+            session.close(true);
+            optimizeVideo(partFile);
+            Files.move(partFile, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(session.getSessionFile());
+            videoIndex.register(targetLocation);
+            return session.toResponse();
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to complete upload " + uploadId, ex);
+        }
     }
 
     @Override
     public String storeImageFile(MultipartFile file) {
-        return storeFile(file, imageStorageLocation);
+        return enqueueUpload(file, MediaKind.IMAGE, imageLayout);
     }
 
     @Override
-    public ResponseEntity<Resource> serveVideo(String uuid, String rangeHeader) {
+    public MediaJobResponse getJob(String uuid) {
+        MediaJob job = mediaJobRepository.findById(uuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Media job not found: " + uuid));
+        return new MediaJobResponse(job.getUuid(), job.getKind(), job.getStatus(), job.getStage(), job.getAttempts(),
+                job.getOriginalFilename(), job.getSize(), job.getChecksum(), job.getContentType(),
+                job.getDurationSeconds(), job.isDeduplicated(), job.getPlaceholder(), job.getError(),
+                job.getCreatedAt(), job.getUpdatedAt());
+    }
+
+    @Override
+    public StoredFileResponse storeVideoStream(String originalFilename, InputStream body) {
+        return storeStream(originalFilename, body, videoLayout, videoIndex, videoContentStore, FileHandlerUtil::hasVideoSignature);
+    }
+
+    @Override
+    public StoredFileResponse storeImageStream(String originalFilename, InputStream body) {
+        return storeStream(originalFilename, body, imageLayout, imageIndex, imageContentStore, FileHandlerUtil::hasImageSignature);
+    }
+
+    @Override
+    public Optional<Integer> getVideoDuration(String uuid) {
+        Optional<Integer> probed = mediaJobRepository.findById(uuid).map(MediaJob::getDurationSeconds);
+        if (probed.isPresent()) {
+            return probed;
+        }
+        return videoIndex.find(uuid).flatMap(mediaFile -> Mp4FastStart.readDurationSeconds(mediaFile.path()));
+    }
+
+    @Override
+    public Optional<String> getImagePlaceholder(String uuid) {
+        Optional<String> computed = mediaJobRepository.findById(uuid).map(MediaJob::getPlaceholder);
+        if (computed.isPresent()) {
+            return computed;
+        }
+        // Posters stored before placeholders existed, or through the streaming endpoint
+        return imageIndex.find(uuid).flatMap(mediaFile -> {
+            try {
+                return BlurHash.encode(mediaFile.path());
+            } catch (IOException ex) {
+                log.warn("Could not compute placeholder for {}", uuid, ex);
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public ResponseEntity<Resource> serveVideo(String uuid, HttpHeaders requestHeaders) {
         try {
-            Path filePath = FileHandlerUtil.findFileByUuid(videoStorageLocation, uuid);
-            Resource resource = FileHandlerUtil.createFullResource(filePath);
+            MediaFile mediaFile = findMediaFile(videoIndex, uuid);
+            if (isNotModified(requestHeaders, mediaFile)) {
+                return buildNotModifiedResponse(mediaFile);
+            }
 
-            String filename = resource.getFilename();
-            String contentType = FileHandlerUtil.detectVideoContentType(filename);
-            long fileLength = resource.contentLength();
+            String filename = mediaFile.filename();
+            String contentType = mediaFile.contentType();
+            long fileLength = mediaFile.size();
+            String rangeHeader = requestHeaders.getFirst(HttpHeaders.RANGE);
 
             if (isFullContentRequest(rangeHeader)) {
-                return buildFullVideoResponse(resource, contentType, filename, fileLength);
+                return buildFullVideoResponse(mediaFile, contentType, filename, fileLength, false);
+            }
+            if (!isRangeApplicable(requestHeaders, mediaFile)) {
+                return buildFullVideoResponse(mediaFile, contentType, filename, fileLength, true);
+            }
+            List<long[]> ranges = FileHandlerUtil.parseRangeHeader(rangeHeader, fileLength, boundOpenRanges ? maxOpenRangeBytes : 0);
+            if (ranges == null) {
+                return buildFullVideoResponse(mediaFile, contentType, filename, fileLength, true);
+            }
+            if (ranges.isEmpty()) {
+                return buildRangeNotSatisfiableResponse(fileLength);
             }
-            return buildPartialVideoResponse(filePath, rangeHeader, contentType, filename, fileLength);
+            if (ranges.size() == 1) {
+                return buildPartialVideoResponse(mediaFile, ranges.get(0), contentType, filename, fileLength);
+            }
+            return buildMultipartVideoResponse(mediaFile, ranges, contentType, filename, fileLength);
         } catch (Exception e) {
             log.error("Error serving video", e);
             return ResponseEntity.notFound().build();
@@ -78,15 +601,19 @@ public class FileUploadServiceImpl implements FileUploadService {
     }
 
     @Override
-    public ResponseEntity<Resource> serveImage(String uuid) {
+    public ResponseEntity<Resource> serveImage(String uuid, Integer width, Integer height, HttpHeaders requestHeaders) {
         try {
-            Path filePath = FileHandlerUtil.findFileByUuid(imageStorageLocation, uuid);
-            Resource resource = FileHandlerUtil.createFullResource(filePath);
+            MediaFile original = findMediaFile(imageIndex, uuid);
+            MediaFile mediaFile = findVariantOrOriginal(original, width, height);
+            if (isNotModified(requestHeaders, mediaFile)) {
+                return buildNotModifiedResponse(mediaFile);
+            }
+            Resource resource = loadPosterResource(mediaFile);
 
-            String filename = resource.getFilename();
-            String contentType = FileHandlerUtil.detectImageContentType(filename);
+            String filename = mediaFile.filename();
+            String contentType = mediaFile.contentType();
 
-            return ResponseEntity.ok()
+            return withValidators(ResponseEntity.ok(), mediaFile)
                     .contentType(MediaType.parseMediaType(contentType))
                     .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
                     .body(resource);
@@ -95,23 +622,307 @@ public class FileUploadServiceImpl implements FileUploadService {
         }
     }
 
-    private ResponseEntity<Resource> buildPartialVideoResponse(Path filePath, String rangeHeader, String contentType, String filename, long fileLength) throws IOException {
-        long[] ranges = FileHandlerUtil.parseRangeHeader(rangeHeader, fileLength);
-        long rangeStart = ranges[0];
-        long rangeEnd = ranges[1];
-        if (!isValidRange(rangeStart, rangeEnd, fileLength)) {
-            return buildRangeNotSatisfiableResponse(fileLength);
+    /**
+     * A variant is only a smaller copy of a poster that exists, so a failed resize serves the original
+     * instead of turning into a 404.
+     */
+    private MediaFile findVariantOrOriginal(MediaFile original, Integer width, Integer height) {
+        try {
+            return imageVariantStore.findOrCreate(original, width, height).orElse(original);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not resize {} to {}x{}, serving the original", original.filename(), width, height, ex);
+            return original;
+        }
+    }
+
+    private Resource loadPosterResource(MediaFile mediaFile) throws IOException {
+        ByteBuffer cached = posterCache.get(mediaFile.etag());
+        if (cached == null && posterCache.accepts(mediaFile.size())) {
+            ByteBuffer loaded = FileHandlerUtil.readIntoDirectBuffer(mediaFile.path(), mediaFile.size());
+            posterCache.put(mediaFile.etag(), loaded);
+            cached = loaded.asReadOnlyBuffer();
+        }
+        return cached != null ? FileHandlerUtil.createBufferResource(cached) : new FileSystemResource(mediaFile.path());
+    }
+
+    @Override
+    public StorageMigrationResponse migrateStorageLayout() {
+        StorageMigrationResponse report = new StorageMigrationResponse();
+        migrateStorageLayout(videoIndex, videoLayout, videoContentStore, report);
+        migrateStorageLayout(imageIndex, imageLayout, imageContentStore, report);
+        log.info("Storage migration moved {} files ({} bytes), {} already in place, {} failed",
+                report.getMoved(), report.getBytesMoved(), report.getAlreadyInPlace(), report.getFailed());
+        return report;
+    }
+
+    private void migrateStorageLayout(MediaFileIndex index, ShardedStorageLayout layout,
+                                      ContentAddressedStore contentStore, StorageMigrationResponse report) {
+        for (MediaFile mediaFile : List.copyOf(index.all())) {
+            Path source = mediaFile.path();
+            if (layout.isInPlace(source)) {
+                report.setAlreadyInPlace(report.getAlreadyInPlace() + 1);
+                continue;
+            }
+            Path target = layout.resolve(mediaFile.filename());
+            try {
+                relocate(source, target, contentStore);
+                index.register(target);
+                report.setMoved(report.getMoved() + 1);
+                report.setBytesMoved(report.getBytesMoved() + mediaFile.size());
+            } catch (IOException | NoSuchAlgorithmException ex) {
+                log.warn("Could not move {} to {}", source, target, ex);
+                report.setFailed(report.getFailed() + 1);
+            }
+        }
+    }
+
+    private void relocate(Path source, Path target, ContentAddressedStore contentStore) throws IOException, NoSuchAlgorithmException {
+        Files.createDirectories(target.getParent());
+        try {
+            // A rename keeps hard links to content-addressed blobs intact
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        } catch (AtomicMoveNotSupportedException ex) {
+            log.debug("{} and {} are on different file systems, copying", source, target);
+        }
+        Path partFile = target.resolveSibling(target.getFileName() + MediaFileIndex.PARTIAL_SUFFIX);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+                Files.copy(in, partFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.setLastModifiedTime(partFile, Files.getLastModifiedTime(source));
+            if (contentStore != null) {
+                contentStore.storeAndLink(partFile, HexFormat.of().formatHex(digest.digest()), target);
+            } else {
+                Files.move(partFile, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.delete(source);
+        } finally {
+            deleteQuietly(partFile);
+        }
+    }
+
+    @Override
+    public OrphanedMediaResponse collectOrphanedMedia(boolean dryRun) {
+        if (dryRun) {
+            return collectOrphans(true);
+        }
+        synchronized (orphanCollectionLock) {
+            return collectOrphans(false);
+        }
+    }
+
+    private OrphanedMediaResponse collectOrphans(boolean dryRun) {
+        OrphanedMediaResponse report = new OrphanedMediaResponse();
+        report.setDryRun(dryRun);
+        Instant graceCutoff = Instant.now().minus(Duration.ofHours(orphanGracePeriodHours));
+        IoRateLimiter rateLimiter = new IoRateLimiter(orphanMaxBytesPerSecond, orphanMaxFilesPerSecond);
+        try {
+            collectOrphans(MediaKind.VIDEO, videoRepository::findReferencedSrcUuids, graceCutoff, rateLimiter, report);
+            collectOrphans(MediaKind.IMAGE, videoRepository::findReferencedPosterUuids, graceCutoff, rateLimiter, report);
+            collectUnreferencedBlobs(videoContentStore, graceCutoff, rateLimiter, report);
+            collectUnreferencedBlobs(imageContentStore, graceCutoff, rateLimiter, report);
+            deleteStalePartFiles(report);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Orphaned media {}: {} of {} files unreferenced ({} bytes), {} within grace period, {} deleted ({} bytes), {} failed",
+                dryRun ? "report" : "collection", report.getOrphaned(), report.getScanned(), report.getReclaimableBytes(),
+                report.getWithinGracePeriod(), report.getDeleted(), report.getBytesReclaimed(), report.getFailed());
+        return report;
+    }
+
+    private void collectOrphans(MediaKind kind, Function<Collection<String>, Set<String>> referencedUuids,
+                                Instant graceCutoff, IoRateLimiter rateLimiter, OrphanedMediaResponse report) throws InterruptedException {
+        MediaFileIndex index = kind == MediaKind.VIDEO ? videoIndex : imageIndex;
+        List<MediaFile> files = List.copyOf(index.all());
+        report.setScanned(report.getScanned() + files.size());
+        for (int from = 0; from < files.size(); from += orphanBatchSize) {
+            List<MediaFile> candidates = new ArrayList<>();
+            for (MediaFile mediaFile : files.subList(from, Math.min(from + orphanBatchSize, files.size()))) {
+                if (lastChanged(mediaFile.path()).isAfter(graceCutoff)) {
+                    report.setWithinGracePeriod(report.getWithinGracePeriod() + 1);
+                } else {
+                    candidates.add(mediaFile);
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            Set<String> referenced = referencedUuids.apply(candidates.stream().map(MediaFile::uuid).toList());
+            for (MediaFile mediaFile : candidates) {
+                if (referenced.contains(mediaFile.uuid())) {
+                    continue;
+                }
+                report.setOrphaned(report.getOrphaned() + 1);
+                report.setReclaimableBytes(report.getReclaimableBytes() + mediaFile.size());
+                report.getOrphanedUuids().add(mediaFile.uuid());
+                if (!report.isDryRun()) {
+                    rateLimiter.acquire(mediaFile.size());
+                    deleteOrphan(kind, index, mediaFile, report);
+                }
+            }
+        }
+    }
+
+    private void deleteOrphan(MediaKind kind, MediaFileIndex index, MediaFile mediaFile, OrphanedMediaResponse report) {
+        // Unindex first so the file is no longer served; readers that already opened it keep their handle
+        index.remove(mediaFile.uuid());
+        try {
+            Files.deleteIfExists(mediaFile.path());
+            long freed = mediaFile.size();
+            if (kind == MediaKind.IMAGE) {
+                posterCache.invalidate(mediaFile.etag());
+                freed += imageVariantStore.deleteVariants(mediaFile.uuid());
+            }
+            report.setDeleted(report.getDeleted() + 1);
+            report.setBytesReclaimed(report.getBytesReclaimed() + freed);
+        } catch (IOException ex) {
+            log.warn("Could not delete orphaned file {}", mediaFile.path(), ex);
+            if (Files.exists(mediaFile.path())) {
+                index.register(mediaFile.path());
+            }
+            report.setFailed(report.getFailed() + 1);
+        }
+    }
+
+    private void collectUnreferencedBlobs(ContentAddressedStore contentStore, Instant graceCutoff,
+                                          IoRateLimiter rateLimiter, OrphanedMediaResponse report) throws InterruptedException {
+        if (contentStore == null) {
+            return;
+        }
+        List<Path> blobs;
+        try {
+            blobs = contentStore.findUnreferencedBlobs();
+        } catch (IOException ex) {
+            log.warn("Could not scan content-addressed blobs", ex);
+            return;
+        }
+        for (Path blob : blobs) {
+            try {
+                // A blob is briefly unlinked between being moved into the store and being linked
+                if (Files.getLastModifiedTime(blob).toInstant().isAfter(graceCutoff)) {
+                    continue;
+                }
+                long size = Files.size(blob);
+                report.setUnreferencedBlobs(report.getUnreferencedBlobs() + 1);
+                report.setReclaimableBytes(report.getReclaimableBytes() + size);
+                if (!report.isDryRun()) {
+                    rateLimiter.acquire(size);
+                    Files.deleteIfExists(blob);
+                    report.setDeleted(report.getDeleted() + 1);
+                    report.setBytesReclaimed(report.getBytesReclaimed() + size);
+                }
+            } catch (IOException ex) {
+                log.warn("Could not delete unreferenced blob {}", blob, ex);
+                report.setFailed(report.getFailed() + 1);
+            }
+        }
+    }
+
+    /**
+     * Part files left by interrupted uploads or by sessions whose sidecar was lost: not owned by a
+     * live or restored session or by a queued or running media job, and untouched for the session idle
+     * timeout.
+     */
+    private void deleteStalePartFiles(OrphanedMediaResponse report) {
+        Set<Path> inUse = new HashSet<>();
+        uploadSessions.values().forEach(session -> inUse.add(session.getPartFile()));
+        try {
+            mediaJobRepository.findByStatusIn(List.of(MediaJobStatus.QUEUED, MediaJobStatus.RUNNING))
+                    .forEach(job -> inUse.add(Path.of(job.getStagingPath())));
+        } catch (RuntimeException ex) {
+            log.warn("Could not load active media jobs, keeping part files", ex);
+            return;
+        }
+        Instant cutoff = Instant.now().minusMillis(uploadSessionIdleTimeoutMillis);
+        List<Path> directories = new ArrayList<>(videoLayout.directories());
+        directories.addAll(imageLayout.directories());
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            List<Path> stale;
+            // Flat files and ab/cd/ shards; hidden directories (blobs, variants) manage their own temp files
+            try (Stream<Path> files = Files.walk(directory, 3)) {
+                stale = files.filter(path -> path.getFileName().toString().endsWith(MediaFileIndex.PARTIAL_SUFFIX))
+                        .filter(path -> !directory.relativize(path).getName(0).toString().startsWith("."))
+                        .filter(path -> !inUse.contains(path))
+                        .filter(path -> lastChanged(path).isBefore(cutoff))
+                        .toList();
+            } catch (IOException ex) {
+                log.warn("Could not scan {} for stale part files", directory, ex);
+                continue;
+            }
+            for (Path partFile : stale) {
+                report.setStalePartFiles(report.getStalePartFiles() + 1);
+                if (!report.isDryRun()) {
+                    deleteQuietly(partFile);
+                }
+            }
+        }
+        if (report.getStalePartFiles() > 0) {
+            log.info("{} {} stale part files", report.isDryRun() ? "Found" : "Deleted", report.getStalePartFiles());
+        }
+    }
+
+    /**
+     * Latest of modification and status change time. Linking a deduplicated upload to an old blob
+     * leaves the shared mtime in the past but updates the ctime, so fresh uploads stay in grace.
+     */
+    private static Instant lastChanged(Path path) {
+        try {
+            Instant modified = Files.getLastModifiedTime(path).toInstant();
+            try {
+                Instant changed = ((FileTime) Files.getAttribute(path, "unix:ctime")).toInstant();
+                return changed.isAfter(modified) ? changed : modified;
+            } catch (UnsupportedOperationException | IllegalArgumentException ex) {
+                return modified;
+            }
+        } catch (IOException ex) {
+            // Vanished or unreadable: treat as recent so nothing is decided on missing data
+            return Instant.MAX;
         }
+    }
+
+    private ResponseEntity<Resource> buildPartialVideoResponse(MediaFile mediaFile, long[] range, String contentType, String filename, long fileLength) throws IOException {
+        Path filePath = mediaFile.path();
+        long rangeStart = range[0];
+        long rangeEnd = range[1];
         long contentLength = rangeEnd - rangeStart + 1;
-        Resource rangeResource = FileHandlerUtil.createRangeResource(filePath, rangeStart, contentLength);
 
-        return ResponseEntity.status(206)
+        ResponseEntity.BodyBuilder response = withValidators(ResponseEntity.status(206), mediaFile)
                 .contentType(MediaType.parseMediaType(contentType))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
                 .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                 .header(HttpHeaders.CONTENT_RANGE, "bytes " + rangeStart + "-" + rangeEnd + "/" + fileLength)
-                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength))
-                .body(rangeResource);
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength));
+
+        if (isSegmentCacheMode()) {
+            return response.body(videoSegmentCache.createRangeResource(mediaFile, rangeStart, contentLength));
+        }
+        if (readAheadPrefetcher != null) {
+            // Only warms the page cache; the range itself is still served by sendfile or from the file
+            readAheadPrefetcher.recordAccess(mediaFile, rangeStart, contentLength);
+        }
+        if (isSendfileMode() && FileHandlerUtil.requestSendfile(filePath, rangeStart, contentLength)) {
+            return response.build();
+        }
+        Resource rangeResource = FileHandlerUtil.createRangeResource(filePath, rangeStart, contentLength);
+        return response.body(rangeResource);
+    }
+
+    private ResponseEntity<Resource> buildMultipartVideoResponse(MediaFile mediaFile, List<long[]> ranges, String contentType, String filename, long fileLength) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        Resource multipartResource = FileHandlerUtil.createMultipartRangeResource(mediaFile.path(), ranges, contentType, fileLength, boundary);
+
+        return withValidators(ResponseEntity.status(206), mediaFile)
+                .contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(multipartResource.contentLength()))
+                .body(multipartResource);
     }
 
     private ResponseEntity<Resource> buildRangeNotSatisfiableResponse(long fileLength) {
@@ -120,35 +931,357 @@ public class FileUploadServiceImpl implements FileUploadService {
                 .build();
     }
 
-    public boolean isValidRange(long rangeStart, long rangeEnd, long fileLength) {
-        return rangeStart <= fileLength && rangeStart >= 0 && rangeEnd < fileLength;
-    }
-
-    private ResponseEntity<Resource> buildFullVideoResponse(Resource resource, String contentType, String filename, long fileLength) {
-        return ResponseEntity.ok()
+    /**
+     * 200 with the whole file. {@code rangeIgnored} marks a request whose Range header must not be
+     * honoured; its body is one Spring MVC will not turn into a 206 or 416 on its own.
+     */
+    private ResponseEntity<Resource> buildFullVideoResponse(MediaFile mediaFile, String contentType, String filename,
+                                                            long fileLength, boolean rangeIgnored) throws IOException {
+        ResponseEntity.BodyBuilder response = withValidators(ResponseEntity.ok(), mediaFile)
                 .contentType(MediaType.parseMediaType(contentType))
                 .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                .body(resource);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        response.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileLength));
+        if (isSendfileMode() && FileHandlerUtil.requestSendfile(mediaFile.path(), 0, fileLength)) {
+            return response.build();
+        }
+        return response.body(rangeIgnored
+                ? FileHandlerUtil.createFullContentResource(mediaFile.path())
+                : new FileSystemResource(mediaFile.path()));
+    }
+
+    private ResponseEntity<Resource> buildNotModifiedResponse(MediaFile mediaFile) {
+        return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), mediaFile).build();
+    }
+
+    private ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, MediaFile mediaFile) {
+        return response
+                .eTag(mediaFile.etag())
+                .lastModified(mediaFile.lastModified())
+                .cacheControl(IMMUTABLE_MEDIA_CACHE);
+    }
+
+    private boolean isNotModified(HttpHeaders requestHeaders, MediaFile mediaFile) {
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            ETag currentETag = ETag.create(mediaFile.etag());
+            return ifNoneMatch.stream()
+                    .flatMap(header -> ETag.parse(header).stream())
+                    .anyMatch(eTag -> eTag.isWildcard() || eTag.compare(currentETag, false));
+        }
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return ifModifiedSince != -1 && lastModifiedSeconds(mediaFile) <= ifModifiedSince / 1000;
+    }
+
+    private boolean isRangeApplicable(HttpHeaders requestHeaders, MediaFile mediaFile) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ETag.parse(ifRange).stream()
+                    .anyMatch(eTag -> eTag.compare(ETag.create(mediaFile.etag()), true));
+        }
+        try {
+            long ifRangeDate = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return lastModifiedSeconds(mediaFile) == ifRangeDate;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private long lastModifiedSeconds(MediaFile mediaFile) {
+        return mediaFile.lastModified().getEpochSecond();
     }
 
     private boolean isFullContentRequest(String rangeHeader) {
         return rangeHeader == null || rangeHeader.isEmpty();
     }
 
-    private String storeFile(MultipartFile file, Path storageLocation) {
-        String fileExtension = FileHandlerUtil.extractFileExtension(file.getOriginalFilename());
+    private boolean isSendfileMode() {
+        return "sendfile".equalsIgnoreCase(videoServeMode);
+    }
+
+    private boolean isSegmentCacheMode() {
+        return "cache".equalsIgnoreCase(videoServeMode);
+    }
+
+    private MediaFile findMediaFile(MediaFileIndex index, String uuid) {
+        return index.find(uuid)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found for UUID: " + uuid));
+    }
+
+    private UploadSession findUploadSession(String uploadId) {
+        UploadSession session = uploadSessions.get(uploadId);
+        if (session == null) {
+            throw new ResourceNotFoundException("Upload session not found: " + uploadId);
+        }
+        return session;
+    }
+
+    private StoredFileResponse storeStream(String originalFilename, InputStream body, ShardedStorageLayout layout,
+                                           MediaFileIndex index, ContentAddressedStore contentStore,
+                                           Predicate<byte[]> signatureCheck) {
         String uuid = UUID.randomUUID().toString();
-        String filename = uuid + "." + fileExtension;
+        String filename = uuid + "." + FileHandlerUtil.extractFileExtension(originalFilename);
+        Path targetLocation = layout.resolve(filename);
+        Path partFile = targetLocation.resolveSibling(filename + MediaFileIndex.PARTIAL_SUFFIX);
         try {
-            if (file.isEmpty()) {
-                throw new RuntimeException("Failed to store empty file " + filename);
+            Files.createDirectories(targetLocation.getParent());
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+            int headerLength = body.readNBytes(buffer, 0, SIGNATURE_LENGTH);
+            if (headerLength == 0) {
+                throw new InvalidUploadException("Failed to store empty file " + originalFilename);
             }
-            Path targetLocation = storageLocation.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            return uuid;
-        } catch (IOException ex) {
+            if (!signatureCheck.test(Arrays.copyOf(buffer, headerLength))) {
+                throw new InvalidUploadException("File content does not match a supported media type: " + originalFilename);
+            }
+
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(partFile)) {
+                int read = headerLength;
+                while (read != -1) {
+                    size += read;
+                    if (size > maxStreamUploadSize) {
+                        throw new InvalidUploadException("File exceeds the maximum upload size of " + maxStreamUploadSize + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    read = body.read(buffer);
+                }
+            }
+            // The blob is stored under its hash, so a rewritten file has to be hashed again
+            String checksum = index == videoIndex && optimizeVideo(partFile)
+                    ? sha256(partFile)
+                    : HexFormat.of().formatHex(digest.digest());
+            boolean deduplicated = false;
+            if (contentStore != null) {
+                deduplicated = contentStore.storeAndLink(partFile, checksum, targetLocation);
+            } else {
+                Files.move(partFile, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+            }
+            MediaFile mediaFile = index.register(targetLocation);
+            return new StoredFileResponse(uuid, originalFilename, size, checksum, mediaFile.contentType(), deduplicated);
+        } catch (IOException | NoSuchAlgorithmException ex) {
             throw new RuntimeException("Failed to store file " + filename, ex);
+        } finally {
+            deleteQuietly(partFile);
+        }
+    }
+
+    /**
+     * Moves the {@code moov} box of {@code partFile} to the front. Returns true when the file was
+     * rewritten; any failure leaves the original upload in place, since fast start is only an optimisation.
+     */
+    private boolean optimizeVideo(Path partFile) {
+        if (!fastStart) {
+            return false;
+        }
+        String partName = partFile.getFileName().toString();
+        Path workFile = partFile.resolveSibling(partName.replace(MediaFileIndex.PARTIAL_SUFFIX, ".faststart" + MediaFileIndex.PARTIAL_SUFFIX));
+        try {
+            if (Mp4FastStart.rewrite(partFile, workFile)) {
+                Files.move(workFile, partFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Moved moov box to the front of {}", partName);
+                return true;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not rewrite {} for fast start, keeping the original", partName, ex);
+        } finally {
+            deleteQuietly(workFile);
+        }
+        return false;
+    }
+
+    private static String sha256(Path file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Could not delete {}", path, ex);
+        }
+    }
+
+    private String enqueueUpload(MultipartFile file, MediaKind kind, ShardedStorageLayout layout) {
+        if (file.isEmpty()) {
+            throw new InvalidUploadException("Failed to store empty file " + file.getOriginalFilename());
+        }
+        String uuid = UUID.randomUUID().toString();
+        String filename = uuid + "." + FileHandlerUtil.extractFileExtension(file.getOriginalFilename());
+        Path partFile = layout.resolve(filename).resolveSibling(filename + MediaFileIndex.PARTIAL_SUFFIX);
+        try {
+            Files.createDirectories(partFile.getParent());
+            file.transferTo(partFile);
+        } catch (IOException ex) {
+            deleteQuietly(partFile);
+            throw new RuntimeException("Failed to store file " + file.getOriginalFilename(), ex);
+        }
+
+        // The UUID is reserved here; the file is served once the workers have published it, which
+        // callers follow through GET /api/files/jobs/{uuid}
+        MediaJob job = new MediaJob();
+        job.setUuid(uuid);
+        job.setKind(kind);
+        job.setStatus(MediaJobStatus.QUEUED);
+        job.setStage(MediaJobStage.stagesFor(kind).get(0));
+        job.setOriginalFilename(file.getOriginalFilename());
+        job.setStagingPath(partFile.toString());
+        job.setSize(file.getSize());
+        job.setNextAttemptAt(Instant.now());
+        mediaJobRepository.save(job);
+        dispatchJob(uuid);
+        return uuid;
+    }
+
+    private MediaJobStage nextStage(MediaJob job) {
+        List<MediaJobStage> stages = MediaJobStage.stagesFor(job.getKind());
+        int next = stages.indexOf(job.getStage()) + 1;
+        return next < stages.size() ? stages.get(next) : null;
+    }
+
+    private void dispatchDueJobs() {
+        try {
+            List<MediaJob> dueJobs = mediaJobRepository.findTop100ByStatusInAndNextAttemptAtLessThanEqualOrderByCreatedAtAsc(
+                    List.of(MediaJobStatus.QUEUED, MediaJobStatus.RUNNING), Instant.now());
+            for (MediaJob job : dueJobs) {
+                if (jobWorkers.getQueue().remainingCapacity() == 0) {
+                    return;
+                }
+                dispatchJob(job.getUuid());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not poll media jobs", ex);
+        }
+    }
+
+    private void dispatchJob(String uuid) {
+        if (!inFlightJobs.add(uuid)) {
+            return;
+        }
+        try {
+            jobWorkers.execute(() -> runJob(uuid));
+        } catch (RejectedExecutionException ex) {
+            // The poller retries it once the pool has room
+            inFlightJobs.remove(uuid);
+        }
+    }
+
+    private void runJob(String uuid) {
+        try {
+            // A running job keeps its lease in nextAttemptAt, so the poller only picks it up again once a
+            // worker has died without finishing it
+            Instant now = Instant.now();
+            if (mediaJobRepository.claim(uuid, List.of(MediaJobStatus.QUEUED, MediaJobStatus.RUNNING),
+                    MediaJobStatus.RUNNING, now, now.plusMillis(jobLeaseMillis)) == 0) {
+                return;
+            }
+            MediaJob job = mediaJobRepository.findById(uuid).orElse(null);
+            if (job == null) {
+                return;
+            }
+
+            while (job.getStage() != null) {
+                try {
+                    runStage(job);
+                } catch (Exception ex) {
+                    retryOrFail(job, ex);
+                    return;
+                }
+                job.setStage(nextStage(job));
+                job.setAttempts(0);
+                job.setNextAttemptAt(Instant.now().plusMillis(jobLeaseMillis));
+                job = mediaJobRepository.save(job);
+            }
+            job.setStatus(MediaJobStatus.COMPLETED);
+            job.setError(null);
+            mediaJobRepository.save(job);
+            log.info("Processed {} {}", job.getKind(), uuid);
+        } catch (RuntimeException ex) {
+            log.error("Media job {} could not be updated", uuid, ex);
+        } finally {
+            inFlightJobs.remove(uuid);
+        }
+    }
+
+    private void retryOrFail(MediaJob job, Exception ex) {
+        job.setAttempts(job.getAttempts() + 1);
+        job.setError(job.getStage() + ": " + ex.getMessage());
+        if (job.getAttempts() >= jobMaxAttempts) {
+            log.error("Media job {} failed in stage {}", job.getUuid(), job.getStage(), ex);
+            job.setStatus(MediaJobStatus.FAILED);
+            deleteQuietly(Path.of(job.getStagingPath()));
+        } else {
+            log.warn("Media job {} failed in stage {}, attempt {} of {}", job.getUuid(), job.getStage(),
+                    job.getAttempts(), jobMaxAttempts, ex);
+            job.setStatus(MediaJobStatus.QUEUED);
+            job.setNextAttemptAt(Instant.now().plusMillis(jobRetryBackoffMillis << (job.getAttempts() - 1)));
+        }
+        mediaJobRepository.save(job);
+    }
+
+    /**
+     * Runs one stage on the staged upload. Every stage can be repeated after a crash or a failed
+     * attempt: the part file is only consumed by PUBLISH, which also accepts an already published file.
+     */
+    private void runStage(MediaJob job) throws IOException, NoSuchAlgorithmException {
+        Path partFile = Path.of(job.getStagingPath());
+        String partName = partFile.getFileName().toString();
+        Path target = partFile.resolveSibling(partName.substring(0, partName.length() - MediaFileIndex.PARTIAL_SUFFIX.length()));
+        Path current = Files.exists(partFile) ? partFile : target;
+        boolean video = job.getKind() == MediaKind.VIDEO;
+
+        switch (job.getStage()) {
+            case FASTSTART -> {
+                if (current == partFile) {
+                    optimizeVideo(partFile);
+                }
+            }
+            case CHECKSUM -> {
+                job.setChecksum(sha256(current));
+                job.setSize(Files.size(current));
+                job.setContentType(video ? FileHandlerUtil.detectVideoContentType(partName)
+                        : FileHandlerUtil.detectImageContentType(partName));
+            }
+            case PROBE -> {
+                job.setDurationSeconds(Mp4FastStart.readDurationSeconds(current).orElse(null));
+                if (job.getDurationSeconds() != null) {
+                    // Videos saved before the probe ran carry the duration typed into the form
+                    videoRepository.updateDurationBySrcUuid(job.getUuid(), job.getDurationSeconds());
+                }
+            }
+            case PLACEHOLDER -> {
+                job.setPlaceholder(BlurHash.encode(current).orElse(null));
+                if (job.getPlaceholder() != null) {
+                    // Videos saved while this job was still queued got no placeholder
+                    videoRepository.fillMissingPosterPlaceholder(job.getUuid(), job.getPlaceholder());
+                }
+            }
+            case PUBLISH -> {
+                if (current == partFile) {
+                    ContentAddressedStore contentStore = video ? videoContentStore : imageContentStore;
+                    if (contentStore != null) {
+                        job.setDeduplicated(contentStore.storeAndLink(partFile, job.getChecksum(), target));
+                    } else {
+                        Files.move(partFile, target, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                }
+                (video ? videoIndex : imageIndex).register(target);
+            }
+            case VARIANTS -> {
+                MediaFile original = findMediaFile(imageIndex, job.getUuid());
+                for (Integer width : imageVariantWidths) {
+                    imageVariantStore.findOrCreate(original, width, null);
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
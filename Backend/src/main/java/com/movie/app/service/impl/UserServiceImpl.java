@@ -11,12 +11,13 @@ import com.movie.app.exception.InvalidRoleException;
 import com.movie.app.repository.UserRepository;
 import com.movie.app.service.EmailService;
 import com.movie.app.service.UserService;
+import com.movie.app.util.CountCache;
 import com.movie.app.util.PaginationUtils;
 import com.movie.app.util.ServiceUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -33,6 +34,7 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder passwordEncoder;
     private final ServiceUtils serviceUtils;
     private final EmailService emailService;
+    private final CountCache countCache;
 
     @Override
     public MessageResponse createUser(UserRequest userRequest) {
@@ -50,6 +52,7 @@ public class UserServiceImpl implements UserService {
         user.setVerificationToken(verificationToken);
         user.setVerificationTokenExpiresAt(Instant.now().plusSeconds(86400));
         userRepository.save(user);
+        countCache.invalidate("users");
         emailService.sendVerificationEmail(userRequest.getEmail(), verificationToken);
 
         return new MessageResponse("User created successfully");
@@ -71,6 +74,7 @@ public class UserServiceImpl implements UserService {
         user.setFullName(userRequest.getFullName());
         user.setRole(Role.valueOf(userRequest.getRole().toUpperCase()));
         userRepository.save(user);
+        countCache.invalidate("users");
         return new MessageResponse("User updated successfully");
     }
 
@@ -84,18 +88,20 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public PageResponse<UserResponse> getUsers(int page, int size, String search) {
+    public PageResponse<UserResponse> getUsers(int page, int size, String search, boolean slice) {
         Pageable pageable = PaginationUtils.createPageRequest(page, size, "id");
+        String query = search != null ? search.trim() : "";
 
-        Page<User> userPage;
+        Slice<User> userSlice = query.isEmpty()
+                ? userRepository.findAllBy(pageable)
+                : userRepository.searchUsers(query, pageable);
 
-        if (search != null && !search.trim().isEmpty()) {
-            userPage = userRepository.searchUsers(search.trim(), pageable);
-        } else {
-            userPage = userRepository.findAll(pageable);
+        if (slice) {
+            return PaginationUtils.toSliceResponse(userSlice, UserResponse::fromEntity);
         }
-
-        return PaginationUtils.toPageResponse(userPage, UserResponse::fromEntity);
+        return PaginationUtils.toPageResponse(PaginationUtils.withTotal(userSlice, () -> countCache.get(
+                CountCache.key("users", query),
+                () -> query.isEmpty() ? userRepository.count() : userRepository.countSearchUsers(query))), UserResponse::fromEntity);
     }
 
     @Override
@@ -109,6 +115,7 @@ public class UserServiceImpl implements UserService {
 
         ensureNotLastAdmin(user, "delete");
         userRepository.deleteById(id);
+        countCache.invalidate("users");
 
         return new MessageResponse("User deleted successfully");
     }
@@ -132,6 +139,7 @@ public class UserServiceImpl implements UserService {
 
         user.setActive(!user.isActive());
         userRepository.save(user);
+        countCache.invalidate("users");
         return new MessageResponse("User status updated successfully");
     }
 
@@ -147,6 +155,7 @@ public class UserServiceImpl implements UserService {
 
         user.setRole(newRole);
         userRepository.save(user);
+        countCache.invalidate("users");
         return new MessageResponse("User role updated successfully");
     }
 
@@ -7,28 +7,92 @@ import com.movie.app.dto.response.VideoResponse;
 import com.movie.app.dto.response.VideoStatsResponse;
 import com.movie.app.entity.Video;
 import com.movie.app.repository.UserRepository;
+import com.movie.app.repository.VideoProjectionRepository;
 import com.movie.app.repository.VideoRepository;
+import com.movie.app.service.FileUploadService;
 import com.movie.app.service.VideoService;
+import com.movie.app.util.CountCache;
+import com.movie.app.util.FullTextQuery;
+import com.movie.app.util.PageCursor;
 import com.movie.app.util.PaginationUtils;
+import com.movie.app.util.RandomIdSampler;
 import com.movie.app.util.ServiceUtils;
+import com.movie.app.util.TrigramIndex;
+import com.movie.app.util.VideoField;
+import com.movie.app.util.VideoProjections;
+import jakarta.annotation.PostConstruct;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class VideoServiceImpl implements VideoService {
 
     private final VideoRepository videoRepository;
     private final UserRepository userRepository;
     private final ServiceUtils serviceUtils;
+    private final FileUploadService fileUploadService;
+    private final CountCache countCache;
+    private final VideoProjections videoProjections;
+
+    private static final int SEARCH_INDEX_BATCH_SIZE = 1000;
+
+    private TrigramIndex trigramIndex;
+
+    private final RandomIdSampler publishedIds = new RandomIdSampler();
+
+    private volatile FeaturedSet featuredSet;
+
+    @Value("${video.search.mode:like}")
+    private String searchMode;
+
+    @Value("${video.search.trigram.min-similarity:0.3}")
+    private double trigramMinSimilarity;
+
+    @Value("${video.featured.count:5}")
+    private int featuredCount;
+
+    @Value("${video.featured.rotation-ms:0}")
+    private long featuredRotationMs;
+
+    @PostConstruct
+    public void init() {
+        publishedIds.reset(videoRepository.findPublishedIds());
+        log.info("Loaded {} published video ids for featured sampling", publishedIds.size());
+        if (!"trigram".equalsIgnoreCase(searchMode)) {
+            return;
+        }
+        TrigramIndex index = new TrigramIndex(trigramMinSimilarity);
+        long afterId = 0;
+        List<Object[]> batch;
+        do {
+            batch = videoRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, SEARCH_INDEX_BATCH_SIZE));
+            for (Object[] document : batch) {
+                afterId = (Long) document[0];
+                index.put(afterId, (String) document[1], (String) document[2], (Boolean) document[3]);
+            }
+        } while (batch.size() == SEARCH_INDEX_BATCH_SIZE);
+        log.info("Indexed {} videos for trigram search", index.size());
+        this.trigramIndex = index;
+    }
 
     @Override
     public MessageResponse createVideoByAdmin(VideoRequest videoRequest) {
@@ -38,29 +102,56 @@ public class VideoServiceImpl implements VideoService {
         video.setDescription(videoRequest.getDescription());
         video.setYear(videoRequest.getYear());
         video.setRating(videoRequest.getRating());
-        video.setDuration(videoRequest.getDuration());
+        video.setDuration(resolveDuration(videoRequest));
         video.setSrcUuid(videoRequest.getSrc());
         video.setPosterUuid(videoRequest.getPoster());
+        video.setPosterPlaceholder(resolvePosterPlaceholder(videoRequest));
         video.setPublished(videoRequest.isPublished());
         video.setCategories(videoRequest.getCategories() != null ? videoRequest.getCategories() : List.of());
 
-        videoRepository.save(video);
+        Video saved = videoRepository.save(video);
+        indexForSearch(saved);
+        invalidateCatalogCounts();
 
         return new MessageResponse("Video Created Successfully");
     }
 
     @Override
-    public PageResponse<VideoResponse> getAllAdminVideos(int page, int size, String search) {
+    public PageResponse<VideoResponse> getAllAdminVideos(int page, int size, String search, String cursor, boolean slice, String fields) {
+        Set<VideoField> selected = VideoField.parse(fields);
+        if (selected != null) {
+            return findVideoFields(false, page, size, search, cursor, slice, selected, null);
+        }
+        if (cursor != null && (search == null || search.trim().isEmpty())) {
+            PageCursor position = PageCursor.decode(cursor);
+            List<Video> rows = videoRepository.findVideosBefore(position.createdAt(), position.id(), size + 1);
+            return PaginationUtils.toCursorPageResponse(rows, size, VideoResponse::fromEntity, VideoServiceImpl::cursorOf);
+        }
         Pageable pageable = PaginationUtils.createPageRequest(page, size, "id");
-        Page<Video> videoPage;
+        String query = search != null ? search.trim() : "";
+        Slice<Video> videoSlice;
+        LongSupplier total;
 
-        if (search != null && !search.trim().isEmpty()) {
-            videoPage = videoRepository.searchVideos(search.trim(), pageable);
+        if (!query.isEmpty() && trigramIndex != null) {
+            long[] rankedIds = trigramIndex.search(query, false);
+            videoSlice = findRankedPage(rankedIds, page, size);
+            total = () -> rankedIds.length;
+        } else if (!query.isEmpty() && isFullTextSearch()) {
+            FullTextQuery fullText = FullTextQuery.parse(query);
+            videoSlice = videoRepository.fullTextSearchVideos(fullText.terms(), fullText.prefix(),
+                    PaginationUtils.createPageRequest(page, size));
+            total = fullTextTotal(false, query);
+        } else if (!query.isEmpty()) {
+            videoSlice = videoRepository.searchVideos(query, pageable);
+            total = likeTotal(false, query);
         } else {
-            videoPage = videoRepository.findAll(pageable);
+            videoSlice = videoRepository.findAllBy(pageable);
+            total = catalogTotal(false);
         }
-        return PaginationUtils.toPageResponse(videoPage, VideoResponse::fromEntity);
-
+        if (slice) {
+            return PaginationUtils.toSliceResponse(videoSlice, VideoResponse::fromEntity);
+        }
+        return PaginationUtils.toPageResponse(PaginationUtils.withTotal(videoSlice, total), VideoResponse::fromEntity);
     }
 
     @Override
@@ -73,17 +164,34 @@ public class VideoServiceImpl implements VideoService {
         video.setDescription(videoRequest.getDescription());
         video.setYear(videoRequest.getYear());
         video.setRating(videoRequest.getRating());
-        video.setDuration(videoRequest.getDuration());
+        video.setDuration(resolveDuration(videoRequest));
         video.setSrcUuid(videoRequest.getSrc());
         video.setPosterUuid(videoRequest.getPoster());
+        video.setPosterPlaceholder(resolvePosterPlaceholder(videoRequest));
         video.setPublished(videoRequest.isPublished());
         video.setCategories(videoRequest.getCategories() != null ? videoRequest.getCategories() : List.of());
 
-        videoRepository.save(video);
+        Video saved = videoRepository.save(video);
+        indexForSearch(saved);
+        invalidateCatalogCounts();
 
         return new MessageResponse("Video Updated Successfully");
     }
 
+    private Integer resolveDuration(VideoRequest videoRequest) {
+        if (videoRequest.getSrc() == null || videoRequest.getSrc().isBlank()) {
+            return videoRequest.getDuration();
+        }
+        return fileUploadService.getVideoDuration(videoRequest.getSrc()).orElse(videoRequest.getDuration());
+    }
+
+    private String resolvePosterPlaceholder(VideoRequest videoRequest) {
+        if (videoRequest.getPoster() == null || videoRequest.getPoster().isBlank()) {
+            return null;
+        }
+        return fileUploadService.getImagePlaceholder(videoRequest.getPoster()).orElse(null);
+    }
+
     @Override
     public MessageResponse deleteVideoByAdmin(Long id) {
         if (!videoRepository.existsById(id)) {
@@ -91,6 +199,11 @@ public class VideoServiceImpl implements VideoService {
         }
 
         videoRepository.deleteById(id);
+        if (trigramIndex != null) {
+            trigramIndex.remove(id);
+        }
+        updateFeaturedSampling(id, false);
+        invalidateCatalogCounts();
         return new MessageResponse("Video Deleted Successfully");
     }
 
@@ -100,6 +213,11 @@ public class VideoServiceImpl implements VideoService {
         Video video = serviceUtils.getVideoById(id);
         video.setPublished(status);
         videoRepository.save(video);
+        if (trigramIndex != null) {
+            trigramIndex.setPublished(id, status);
+        }
+        updateFeaturedSampling(id, status);
+        invalidateCatalogCounts();
         return new MessageResponse("Video Published Successfully");
     }
 
@@ -113,18 +231,110 @@ public class VideoServiceImpl implements VideoService {
     }
 
     @Override
-    public PageResponse<VideoResponse> getPublishedVideos(int page, int size, String search, String email) {
+    public PageResponse<VideoResponse> getPublishedVideos(int page, int size, String search, String cursor, boolean slice, String fields, String email) {
+        Set<VideoField> selected = VideoField.parse(fields);
+        if (selected != null) {
+            return findVideoFields(true, page, size, search, cursor, slice, selected, email);
+        }
+        if (cursor != null && (search == null || search.trim().isEmpty())) {
+            PageCursor position = PageCursor.decode(cursor);
+            List<Video> rows = videoRepository.findPublishedVideosBefore(position.createdAt(), position.id(), size + 1);
+            markWatchlistVideos(rows, email);
+            return PaginationUtils.toCursorPageResponse(rows, size, VideoResponse::fromEntity, VideoServiceImpl::cursorOf);
+        }
         Pageable pageable = PaginationUtils.createPageRequest(page, size, "id");
-        Page<Video> videoPage;
+        String query = search != null ? search.trim() : "";
+        Slice<Video> videoSlice;
+        LongSupplier total;
 
-        if (search != null && !search.trim().isEmpty()) {
-            videoPage = videoRepository.searchPublishedVideos(search.trim(), pageable);
+        if (!query.isEmpty() && trigramIndex != null) {
+            long[] rankedIds = trigramIndex.search(query, true);
+            videoSlice = findRankedPage(rankedIds, page, size);
+            total = () -> rankedIds.length;
+        } else if (!query.isEmpty() && isFullTextSearch()) {
+            FullTextQuery fullText = FullTextQuery.parse(query);
+            videoSlice = videoRepository.fullTextSearchPublishedVideos(fullText.terms(), fullText.prefix(),
+                    PaginationUtils.createPageRequest(page, size));
+            total = fullTextTotal(true, query);
+        } else if (!query.isEmpty()) {
+            videoSlice = videoRepository.searchPublishedVideos(query, pageable);
+            total = likeTotal(true, query);
         } else {
-            videoPage = videoRepository.findPublishVideoPageable(pageable);
+            videoSlice = videoRepository.findPublishVideoPageable(pageable);
+            total = catalogTotal(true);
+        }
+
+        List<Video> videos = videoSlice.getContent();
+        markWatchlistVideos(videos, email);
+
+        List<VideoResponse> videoResponses = videos.stream().map(VideoResponse::fromEntity).toList();
+        if (slice) {
+            return PaginationUtils.toSliceResponse(videoSlice, videoResponses);
+        }
+        return PaginationUtils.toPageResponse(PaginationUtils.withTotal(videoSlice, total), videoResponses);
+    }
+
+    /**
+     * The {@code ?fields=} variant of the published and admin lists: same search modes and paging,
+     * but rows are column projections and only the requested fields are loaded.
+     */
+    private PageResponse<VideoResponse> findVideoFields(boolean publishedOnly, int page, int size, String search, String cursor,
+                                                        boolean slice, Set<VideoField> fields, String email) {
+        String query = search != null ? search.trim() : "";
+        if (cursor != null && query.isEmpty()) {
+            return videoProjections.cursorPage(VideoProjectionRepository.Filter.videos(publishedOnly, null), fields, cursor, size, email);
+        }
+        if (!query.isEmpty() && trigramIndex != null) {
+            long[] rankedIds = trigramIndex.search(query, publishedOnly);
+            int from = (int) Math.min(PaginationUtils.createPageRequest(page, size).getOffset(), rankedIds.length);
+            int to = Math.min(from + size, rankedIds.length);
+            List<Long> pageIds = Arrays.stream(rankedIds, from, to).boxed().toList();
+            return videoProjections.rankedPage(pageIds, to < rankedIds.length, fields, page, size, slice,
+                    () -> rankedIds.length, email);
+        }
+        if (!query.isEmpty() && isFullTextSearch()) {
+            Pageable pageable = PaginationUtils.createPageRequest(page, size);
+            FullTextQuery fullText = FullTextQuery.parse(query);
+            Slice<Long> ids = publishedOnly
+                    ? videoRepository.fullTextSearchPublishedVideoIds(fullText.terms(), fullText.prefix(), pageable)
+                    : videoRepository.fullTextSearchVideoIds(fullText.terms(), fullText.prefix(), pageable);
+            return videoProjections.rankedPage(ids.getContent(), ids.hasNext(), fields, page, size, slice,
+                    fullTextTotal(publishedOnly, query), email);
         }
+        if (!query.isEmpty()) {
+            return videoProjections.page(VideoProjectionRepository.Filter.videos(publishedOnly, query), fields,
+                    page, size, slice, likeTotal(publishedOnly, query), email);
+        }
+        VideoProjectionRepository.Filter filter = VideoProjectionRepository.Filter.videos(publishedOnly, null);
+        // The admin list is ordered by id, the published list by creation time
+        return videoProjections.page(publishedOnly ? filter : filter.orderedById(), fields,
+                page, size, slice, catalogTotal(publishedOnly), email);
+    }
 
-        List<Video> videos = videoPage.getContent();
+    private LongSupplier fullTextTotal(boolean publishedOnly, String query) {
+        FullTextQuery fullText = FullTextQuery.parse(query);
+        return publishedOnly
+                ? () -> countCache.get(CountCache.key("videos:published:fulltext", query),
+                        () -> videoRepository.countFullTextSearchPublishedVideos(fullText.terms(), fullText.prefix()))
+                : () -> countCache.get(CountCache.key("videos:all:fulltext", query),
+                        () -> videoRepository.countFullTextSearchVideos(fullText.terms(), fullText.prefix()));
+    }
+
+    private LongSupplier likeTotal(boolean publishedOnly, String query) {
+        return publishedOnly
+                ? () -> countCache.get(CountCache.key("videos:published:like", query),
+                        () -> videoRepository.countSearchPublishedVideos(query))
+                : () -> countCache.get(CountCache.key("videos:all:like", query),
+                        () -> videoRepository.countSearchVideos(query));
+    }
 
+    private LongSupplier catalogTotal(boolean publishedOnly) {
+        return publishedOnly
+                ? () -> countCache.get(CountCache.key("videos:published", ""), () -> videoRepository.countByPublished(true))
+                : () -> countCache.get(CountCache.key("videos:all", ""), videoRepository::count);
+    }
+
+    private void markWatchlistVideos(List<Video> videos, String email) {
         Set<Long> watchlistIds = Set.of();
         if (!videos.isEmpty()) {
             try {
@@ -138,16 +348,84 @@ public class VideoServiceImpl implements VideoService {
         videos.forEach(video -> {
             video.setIsInWatchList(finalWatchlistIds.contains(video.getId()));
         });
+    }
 
-        List<VideoResponse> videoResponses = videos.stream().map(VideoResponse::fromEntity).toList();
-        return PaginationUtils.toPageResponse(videoPage, videoResponses);
+    private static PageCursor cursorOf(Video video) {
+        return new PageCursor(video.getCreatedAt(), video.getId());
+    }
+
+    private void invalidateCatalogCounts() {
+        countCache.invalidate("videos");
+        // Watchlists only count published videos
+        countCache.invalidate("watchlist");
+    }
+
+    private void indexForSearch(Video video) {
+        if (trigramIndex != null) {
+            trigramIndex.put(video.getId(), video.getTitle(), video.getDescription(), video.isPublished());
+        }
+        updateFeaturedSampling(video.getId(), video.isPublished());
+    }
+
+    private void updateFeaturedSampling(Long id, boolean published) {
+        if (published) {
+            publishedIds.add(id);
+        } else {
+            publishedIds.remove(id);
+        }
+        // Drop the rotated set so an unpublished or edited video does not linger until the next window
+        featuredSet = null;
+    }
+
+    /**
+     * Loads only the rows of the requested page of ranked ids, in rank order.
+     */
+    private Page<Video> findRankedPage(long[] rankedIds, int page, int size) {
+        Pageable pageable = PaginationUtils.createPageRequest(page, size);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.length);
+        int to = Math.min(from + size, rankedIds.length);
+        List<Long> pageIds = Arrays.stream(rankedIds, from, to).boxed().toList();
+        Map<Long, Video> videosById = videoRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Video::getId, Function.identity()));
+        List<Video> videos = pageIds.stream().map(videosById::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(videos, pageable, rankedIds.length);
+    }
+
+    private boolean isFullTextSearch() {
+        return "fulltext".equalsIgnoreCase(searchMode);
     }
 
     @Override
     public List<VideoResponse> getFeaturedVideos() {
-        Pageable pageable = PageRequest.of(0, 5);
-        List<Video> videos = videoRepository.findRandomPublishedVideos(pageable);
-
+        List<Video> videos;
+        if (featuredRotationMs > 0) {
+            long window = System.currentTimeMillis() / featuredRotationMs;
+            FeaturedSet current = featuredSet;
+            if (current == null || current.window() != window) {
+                current = new FeaturedSet(window, sampleFeaturedVideos());
+                featuredSet = current;
+            }
+            videos = current.videos();
+        } else {
+            videos = sampleFeaturedVideos();
+        }
+        // Mapped per request: src and poster URLs are built from the current request's host
         return videos.stream().map(VideoResponse::fromEntity).toList();
     }
+
+    /**
+     * Picks random ids from the in-memory published id array and loads just those rows by primary key.
+     */
+    private List<Video> sampleFeaturedVideos() {
+        List<Long> ids = Arrays.stream(publishedIds.sample(featuredCount)).boxed().toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Video> videosById = videoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Video::getId, Function.identity()));
+        return ids.stream().map(videosById::get).filter(Objects::nonNull).filter(Video::isPublished).toList();
+    }
+
+    private record FeaturedSet(long window, List<Video> videos) {
+    }
 }
@@ -6,15 +6,23 @@ import com.movie.app.dto.response.VideoResponse;
 import com.movie.app.entity.User;
 import com.movie.app.entity.Video;
 import com.movie.app.repository.UserRepository;
+import com.movie.app.repository.VideoProjectionRepository;
 import com.movie.app.repository.VideoRepository;
 import com.movie.app.service.WatchlistService;
+import com.movie.app.util.CountCache;
+import com.movie.app.util.PageCursor;
 import com.movie.app.util.PaginationUtils;
 import com.movie.app.util.ServiceUtils;
+import com.movie.app.util.VideoField;
+import com.movie.app.util.VideoProjections;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
@@ -23,6 +31,8 @@ public class WatchlistServiceImpl implements WatchlistService {
     private final UserRepository userRepository;
     private final VideoRepository videoRepository;
     private final ServiceUtils serviceUtils;
+    private final CountCache countCache;
+    private final VideoProjections videoProjections;
 
     @Override
     public MessageResponse addWatchList(String email, Long videoId) {
@@ -32,6 +42,7 @@ public class WatchlistServiceImpl implements WatchlistService {
 
         user.addWatchlist(video);
         userRepository.save(user);
+        countCache.invalidate("watchlist:" + user.getId());
         return new MessageResponse("Video added to watchlist successfully.");
     }
 
@@ -42,21 +53,42 @@ public class WatchlistServiceImpl implements WatchlistService {
 
         user.removeWatchlist(video);
         userRepository.save(user);
+        countCache.invalidate("watchlist:" + user.getId());
         return new MessageResponse("Video removed from watchlist successfully.");
     }
 
     @Override
-    public PageResponse<VideoResponse> getWatchListPaginated(String email, int page, int size, String search) {
+    public PageResponse<VideoResponse> getWatchListPaginated(String email, int page, int size, String search, String cursor, boolean slice, String fields) {
 
         User user = serviceUtils.getUserByEmail(email);
+        Set<VideoField> selected = VideoField.parse(fields);
+        String query = search != null ? search.trim() : "";
+        LongSupplier total = () -> countCache.get(CountCache.key("watchlist:" + user.getId(), query),
+                () -> query.isEmpty()
+                        ? userRepository.countWatchlistByUserId(user.getId())
+                        : userRepository.countSearchWatchlistByUserId(user.getId(), query));
+        if (selected != null) {
+            VideoProjectionRepository.Filter filter = VideoProjectionRepository.Filter.watchlist(user.getId(), query);
+            if (cursor != null && query.isEmpty()) {
+                return videoProjections.cursorPage(filter, selected, cursor, size, email);
+            }
+            return videoProjections.page(filter, selected, page, size, slice, total, email);
+        }
+        if (cursor != null && (search == null || search.trim().isEmpty())) {
+            PageCursor position = PageCursor.decode(cursor);
+            List<Video> rows = videoRepository.findWatchlistVideosBefore(user.getId(), position.createdAt(), position.id(), size + 1);
+            return PaginationUtils.toCursorPageResponse(rows, size, VideoResponse::fromEntity,
+                    video -> new PageCursor(video.getCreatedAt(), video.getId()));
+        }
         Pageable pageable = PaginationUtils.createPageRequest(page, size);
-        Page<Video> videoPage;
 
-        if (search != null && !search.trim().isEmpty()) {
-            videoPage = userRepository.searchWatchlistByUserId(user.getId(), search.trim(), pageable);
-        } else {
-            videoPage = userRepository.findWatchlistByUserId(user.getId(), pageable);
+        Slice<Video> videoSlice = query.isEmpty()
+                ? userRepository.findWatchlistByUserId(user.getId(), pageable)
+                : userRepository.searchWatchlistByUserId(user.getId(), query, pageable);
+
+        if (slice) {
+            return PaginationUtils.toSliceResponse(videoSlice, VideoResponse::fromEntity);
         }
-        return PaginationUtils.toPageResponse(videoPage, VideoResponse::fromEntity);
+        return PaginationUtils.toPageResponse(PaginationUtils.withTotal(videoSlice, total), VideoResponse::fromEntity);
     }
 }
@@ -0,0 +1,142 @@
+package com.movie.app.util;
+
+import lombok.NoArgsConstructor;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * BlurHash encoder (https://blurha.sh). A poster becomes a ~30 character string holding its average
+ * colour and a few low-frequency cosine components, which clients decode into a blurred placeholder.
+ */
+@NoArgsConstructor
+public class BlurHash {
+
+    private static final String BASE83 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+    private static final int SAMPLE_SIZE = 32;
+    private static final int LONG_SIDE_COMPONENTS = 4;
+    private static final int SHORT_SIDE_COMPONENTS = 3;
+
+    public static Optional<String> encode(Path imagePath) throws IOException {
+        BufferedImage image = ImageIO.read(imagePath.toFile());
+        if (image == null) {
+            return Optional.empty();
+        }
+        boolean landscape = image.getWidth() >= image.getHeight();
+        return Optional.of(encode(downscale(image),
+                landscape ? LONG_SIDE_COMPONENTS : SHORT_SIDE_COMPONENTS,
+                landscape ? SHORT_SIDE_COMPONENTS : LONG_SIDE_COMPONENTS));
+    }
+
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        double[][] linear = new double[pixels.length][3];
+        for (int i = 0; i < pixels.length; i++) {
+            linear[i][0] = srgbToLinear((pixels[i] >> 16) & 0xFF);
+            linear[i][1] = srgbToLinear((pixels[i] >> 8) & 0xFF);
+            linear[i][2] = srgbToLinear(pixels[i] & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = basisFactor(linear, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        appendBase83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+        double maximumValue = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int i = 1; i < factors.length; i++) {
+                for (double component : factors[i]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(component));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            appendBase83(hash, quantisedMaximum, 1);
+        } else {
+            appendBase83(hash, 0, 1);
+        }
+        appendBase83(hash, encodeDc(factors[0]), 4);
+        for (int i = 1; i < factors.length; i++) {
+            appendBase83(hash, encodeAc(factors[i], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] basisFactor(double[][] linear, int width, int height, int i, int j) {
+        double normalisation = i == 0 && j == 0 ? 1 : 2;
+        double[] factor = new double[3];
+        for (int y = 0; y < height; y++) {
+            double basisY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double basis = normalisation * Math.cos(Math.PI * i * x / width) * basisY;
+                double[] pixel = linear[y * width + x];
+                factor[0] += basis * pixel[0];
+                factor[1] += basis * pixel[1];
+                factor[2] += basis * pixel[2];
+            }
+        }
+        double scale = 1.0 / (width * height);
+        factor[0] *= scale;
+        factor[1] *= scale;
+        factor[2] *= scale;
+        return factor;
+    }
+
+    private static int encodeDc(double[] color) {
+        return (linearToSrgb(color[0]) << 16) + (linearToSrgb(color[1]) << 8) + linearToSrgb(color[2]);
+    }
+
+    private static int encodeAc(double[] color, double maximumValue) {
+        return quantiseAc(color[0] / maximumValue) * 19 * 19
+                + quantiseAc(color[1] / maximumValue) * 19
+                + quantiseAc(color[2] / maximumValue);
+    }
+
+    private static int quantiseAc(double value) {
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(value)), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void appendBase83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / (int) Math.pow(83, length - i)) % 83;
+            hash.append(BASE83.charAt(digit));
+        }
+    }
+
+    private static BufferedImage downscale(BufferedImage source) {
+        double scale = Math.min(1, (double) SAMPLE_SIZE / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage sample = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sample.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return sample;
+    }
+}
@@ -0,0 +1,86 @@
+package com.movie.app.util;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps one blob per distinct content under {@code .blobs/<first two hex chars>/<sha256>} and exposes
+ * it under public UUID names as hard links. The file system's link count is the reference count, so
+ * duplicate uploads share a single inode on disk and in the page cache. With several storage roots
+ * (one per disk) each root has its own blob directory, since hard links cannot cross file systems.
+ */
+public class ContentAddressedStore {
+
+    public static final String BLOB_DIRECTORY = ".blobs";
+
+    private final List<Path> storageLocations;
+
+    public ContentAddressedStore(Path storageLocation) throws IOException {
+        this(List.of(storageLocation));
+    }
+
+    public ContentAddressedStore(List<Path> storageLocations) throws IOException {
+        this.storageLocations = List.copyOf(storageLocations);
+        for (Path storageLocation : this.storageLocations) {
+            Files.createDirectories(storageLocation.resolve(BLOB_DIRECTORY));
+        }
+    }
+
+    public Path blobPath(String sha256) {
+        return blobPath(storageLocations.get(0), sha256);
+    }
+
+    private Path blobPath(Path storageLocation, String sha256) {
+        return storageLocation.resolve(BLOB_DIRECTORY).resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    /**
+     * Moves the freshly written file into the store unless a blob with the same hash already exists,
+     * then links the public name to the blob. Returns true when the upload was a duplicate.
+     */
+    public boolean storeAndLink(Path tempFile, String sha256, Path target) throws IOException {
+        Path blob = blobPath(storageLocationOf(target), sha256);
+        Files.createDirectories(blob.getParent());
+        boolean duplicate;
+        try {
+            Files.move(tempFile, blob);
+            duplicate = false;
+        } catch (FileAlreadyExistsException e) {
+            Files.delete(tempFile);
+            duplicate = true;
+        }
+        Files.createLink(target, blob);
+        return duplicate;
+    }
+
+    public int referenceCount(Path blob) throws IOException {
+        return ((Number) Files.getAttribute(blob, "unix:nlink")).intValue() - 1;
+    }
+
+    public List<Path> findUnreferencedBlobs() throws IOException {
+        List<Path> unreferenced = new ArrayList<>();
+        for (Path storageLocation : storageLocations) {
+            try (Stream<Path> blobs = Files.walk(storageLocation.resolve(BLOB_DIRECTORY), 2)) {
+                for (Path blob : (Iterable<Path>) blobs.filter(Files::isRegularFile)::iterator) {
+                    if (referenceCount(blob) <= 0) {
+                        unreferenced.add(blob);
+                    }
+                }
+            }
+        }
+        return unreferenced;
+    }
+
+    private Path storageLocationOf(Path target) {
+        return storageLocations.stream()
+                .filter(target::startsWith)
+                .max(Comparator.comparingInt(Path::getNameCount))
+                .orElseThrow(() -> new IllegalArgumentException(target + " is outside of the storage locations"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.movie.app.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of list totals keyed by a normalized filter, so paging through a list or a
+ * search costs one query per page instead of a page query plus a {@code count(*)}. Services drop the
+ * keys under a prefix when they change the underlying rows; the TTL bounds staleness otherwise.
+ */
+@Component
+public class CountCache {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a count loaded before it is not stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public CountCache(@Value("${pagination.count-cache.ttl-ms:30000}") long ttlMillis,
+                      @Value("${pagination.count-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    public static String key(String namespace, String filter) {
+        String normalized = filter == null ? "" : filter.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return namespace + ":" + normalized;
+    }
+
+    public long get(String key, LongSupplier loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.count();
+        }
+        long loadedGeneration = generation.get();
+        long count = loader.getAsLong();
+        if (ttlMillis > 0 && hasRoom(now) && generation.get() == loadedGeneration) {
+            entries.put(key, new Entry(count, now + ttlMillis));
+            if (generation.get() != loadedGeneration) {
+                entries.remove(key);
+            }
+        }
+        return count;
+    }
+
+    public void invalidate(String namespace) {
+        generation.incrementAndGet();
+        String prefix = namespace + ":";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean hasRoom(long now) {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        return entries.size() < maxEntries;
+    }
+
+    private record Entry(long count, long expiresAt) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.movie.app.util;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte-bounded LRU cache keeping small immutable files in direct buffers, so hot entries live
+ * outside the Java heap and are served without touching the file system.
+ */
+public class DirectBufferCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DirectBufferCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Returns a read-only view of the cached bytes; each caller gets its own position.
+     */
+    public ByteBuffer get(String key) {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = entries.get(key);
+        }
+        if (buffer == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public boolean accepts(long size) {
+        return size > 0 && size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    public synchronized void put(String key, ByteBuffer buffer) {
+        if (!accepts(buffer.capacity())) {
+            return;
+        }
+        ByteBuffer previous = entries.put(key, buffer);
+        if (previous != null) {
+            currentBytes -= previous.capacity();
+        }
+        currentBytes += buffer.capacity();
+        Iterator<Map.Entry<String, ByteBuffer>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, ByteBuffer> entry = eldest.next();
+            currentBytes -= entry.getValue().capacity();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(String key) {
+        ByteBuffer removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= removed.capacity();
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long total = hitCount() + missCount();
+        return total == 0 ? 0 : (double) hitCount() / total;
+    }
+}
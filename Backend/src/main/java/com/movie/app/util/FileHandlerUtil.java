@@ -4,17 +4,38 @@ import lombok.NoArgsConstructor;
 import org.springframework.core.io.FileSystemResource; // BU IMPORT ÖNEMLİ
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
 
 @NoArgsConstructor
 public class FileHandlerUtil {
 
+    private static final String BYTES_UNIT = "bytes=";
+    private static final int MAX_RANGES = 64;
+
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     public static String extractFileExtension(String originalFileName) {
         String fileExtension = "";
         if (originalFileName != null && originalFileName.contains(".")) {
@@ -23,15 +44,6 @@ public class FileHandlerUtil {
         return fileExtension;
     }
 
-    public static Path findFileByUuid(Path directory, String uuid) throws Exception {
-        try (Stream<Path> stream = Files.list(directory)) {
-            return stream
-                    .filter(path -> path.getFileName().toString().startsWith(uuid))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("File not found for UUID: " + uuid));
-        }
-    }
-
     public static String detectVideoContentType(String filename) {
         if (filename == null) return "video/mp4";
         String lowerCaseFilename = filename.toLowerCase();
@@ -48,6 +60,40 @@ public class FileHandlerUtil {
         return "video/mp4";
     }
 
+    public static boolean hasVideoSignature(byte[] header) {
+        return startsWith(header, 4, "ftyp")
+                || startsWith(header, 0, 0x1A, 0x45, 0xDF, 0xA3)
+                || startsWith(header, 0, "OggS")
+                || (startsWith(header, 0, "RIFF") && startsWith(header, 8, "AVI "))
+                || startsWith(header, 0, "FLV")
+                || startsWith(header, 0, 0x00, 0x00, 0x01, 0xBA)
+                || startsWith(header, 0, 0x00, 0x00, 0x01, 0xB3)
+                || startsWith(header, 0, 0x30, 0x26, 0xB2, 0x75);
+    }
+
+    public static boolean hasImageSignature(byte[] header) {
+        return startsWith(header, 0, 0xFF, 0xD8, 0xFF)
+                || startsWith(header, 0, 0x89, 'P', 'N', 'G')
+                || startsWith(header, 0, "GIF8")
+                || (startsWith(header, 0, "RIFF") && startsWith(header, 8, "WEBP"));
+    }
+
+    private static boolean startsWith(byte[] header, int offset, String signature) {
+        return startsWith(header, offset, signature.chars().toArray());
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... signature) {
+        if (header.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static String detectImageContentType(String filename) {
         if (filename == null) return "image/jpeg";
         if (filename.endsWith(".png")) return "image/png";
@@ -56,11 +102,95 @@ public class FileHandlerUtil {
         return "image/jpeg";
     }
 
-    public static long[] parseRangeHeader(String rangeHeader, long fileLength) {
-        String[] ranges = rangeHeader.replace("bytes=", "").split("-");
-        long rangeStart = Long.parseLong(ranges[0]);
-        long rangeEnd = ranges.length > 1 && !ranges[1].isEmpty() ? Long.parseLong(ranges[1]) : fileLength - 1;
-        return new long[]{rangeStart, rangeEnd};
+    /**
+     * Parses an RFC 7233 byte range header into satisfiable {start, end} pairs, sorted and with
+     * overlapping or adjacent ranges merged. Returns null when the header is malformed (it should
+     * then be ignored) and an empty list when none of the ranges can be satisfied.
+     */
+    public static List<long[]> parseRangeHeader(String rangeHeader, long fileLength) {
+        return parseRangeHeader(rangeHeader, fileLength, 0);
+    }
+
+    /**
+     * Same as {@link #parseRangeHeader(String, long)}, but an open-ended range ({@code bytes=X-}) is cut
+     * to at most {@code maxOpenRangeLength} bytes when that limit is positive. The client learns the
+     * real end from Content-Range and asks for the next window.
+     */
+    public static List<long[]> parseRangeHeader(String rangeHeader, long fileLength, long maxOpenRangeLength) {
+        String header = rangeHeader.trim();
+        if (!header.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+        String[] specs = header.substring(BYTES_UNIT.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (String rawSpec : specs) {
+            String spec = rawSpec.trim();
+            int dashIndex = spec.indexOf('-');
+            if (dashIndex < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dashIndex).trim();
+                String last = spec.substring(dashIndex + 1).trim();
+                if (first.isEmpty()) {
+                    long suffixLength = parseBytePosition(last);
+                    if (suffixLength > 0 && fileLength > 0) {
+                        ranges.add(new long[]{Math.max(0, fileLength - suffixLength), fileLength - 1});
+                    }
+                    continue;
+                }
+                long rangeStart = parseBytePosition(first);
+                if (last.isEmpty() && rangeStart >= fileLength) {
+                    // Open range past the end: valid syntax, nothing to send
+                    continue;
+                }
+                long rangeEnd = last.isEmpty() ? openRangeEnd(rangeStart, fileLength, maxOpenRangeLength) : parseBytePosition(last);
+                if (rangeEnd < rangeStart) {
+                    return null;
+                }
+                if (rangeStart < fileLength) {
+                    ranges.add(new long[]{rangeStart, Math.min(rangeEnd, fileLength - 1)});
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return coalesceRanges(ranges);
+    }
+
+    /**
+     * Byte positions are plain digits (RFC 9110); signs, as in {@code bytes=--5}, make the header malformed.
+     */
+    private static long parseBytePosition(String value) {
+        if (value.isEmpty() || !value.chars().allMatch(character -> character >= '0' && character <= '9')) {
+            throw new NumberFormatException("Not a byte position: " + value);
+        }
+        return Long.parseLong(value);
+    }
+
+    private static long openRangeEnd(long rangeStart, long fileLength, long maxOpenRangeLength) {
+        if (maxOpenRangeLength <= 0) {
+            return fileLength - 1;
+        }
+        return Math.min(fileLength - 1, rangeStart + maxOpenRangeLength - 1);
+    }
+
+    private static List<long[]> coalesceRanges(List<long[]> ranges) {
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : ranges) {
+            long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (previous != null && range[0] <= previous[1] + 1) {
+                previous[1] = Math.max(previous[1], range[1]);
+            } else {
+                merged.add(new long[]{range[0], range[1]});
+            }
+        }
+        return merged;
     }
 
     public static Resource createRangeResource(Path filePath, long rangeStart, long rangeLength) throws IOException {
@@ -107,6 +237,99 @@ public class FileHandlerUtil {
         };
     }
 
+    /**
+     * Whole-file body for a request whose Range header is being ignored (If-Range mismatch or a
+     * malformed header). Spring MVC applies the Range header itself to any other 200 {@link Resource}
+     * body, so this must be a plain {@link InputStreamResource}; the caller sets Content-Length.
+     */
+    public static Resource createFullContentResource(Path filePath) throws IOException {
+        return new InputStreamResource(Files.newInputStream(filePath));
+    }
+
+    public static Resource createMultipartRangeResource(Path filePath, List<long[]> ranges, String contentType,
+                                                       long fileLength, String boundary) {
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            String partHeader = "\r\n--" + boundary + "\r\n" +
+                    "Content-Type: " + contentType + "\r\n" +
+                    "Content-Range: bytes " + range[0] + "-" + range[1] + "/" + fileLength + "\r\n\r\n";
+            byte[] headerBytes = partHeader.getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(headerBytes);
+            contentLength += headerBytes.length + range[1] - range[0] + 1;
+        }
+        byte[] closingBoundary = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closingBoundary.length;
+
+        Enumeration<InputStream> partStreams = new Enumeration<>() {
+            private int part = 0;
+            @Override
+            public boolean hasMoreElements() {
+                return part <= ranges.size() * 2;
+            }
+            @Override
+            public InputStream nextElement() {
+                int current = part++;
+                if (current == ranges.size() * 2) {
+                    return new ByteArrayInputStream(closingBoundary);
+                }
+                if (current % 2 == 0) {
+                    return new ByteArrayInputStream(partHeaders.get(current / 2));
+                }
+                long[] range = ranges.get(current / 2);
+                try {
+                    return createRangeResource(filePath, range[0], range[1] - range[0] + 1).getInputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        long multipartLength = contentLength;
+        return new InputStreamResource(new SequenceInputStream(partStreams)) {
+            @Override
+            public long contentLength() {
+                return multipartLength;
+            }
+        };
+    }
+
+    public static ByteBuffer readIntoDirectBuffer(Path filePath, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.toIntExact(size));
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // keep reading until the buffer is full
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public static Resource createBufferResource(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        InputStream bufferStream = new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+            @Override
+            public int read(byte[] target, int offset, int length) {
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, buffer.remaining());
+                buffer.get(target, offset, count);
+                return count;
+            }
+        };
+        return new InputStreamResource(bufferStream) {
+            @Override
+            public long contentLength() {
+                return length;
+            }
+        };
+    }
+
     public static Resource createFullResource(Path filePath) throws IOException {
         Resource resource = new FileSystemResource(filePath);
 
@@ -115,4 +338,25 @@ public class FileHandlerUtil {
         }
         return resource;
     }
-}
\ No newline at end of file
+
+    /**
+     * Hands the byte range over to the connector's sendfile support so the bytes go from the
+     * page cache to the socket without being copied through the Java heap. Returns false when
+     * the current connector cannot do it (e.g. TLS or HTTP/2), in which case the caller has to
+     * write a body itself.
+     */
+    public static boolean requestSendfile(Path filePath, long rangeStart, long rangeLength) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes) || rangeLength <= 0) {
+            return false;
+        }
+        var request = servletAttributes.getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME_ATTR, filePath.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START_ATTR, rangeStart);
+        request.setAttribute(SENDFILE_END_ATTR, rangeStart + rangeLength);
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package com.movie.app.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Search box input split for the full-text search: {@code terms} goes through
+ * {@code websearch_to_tsquery} as typed, and the trailing word becomes a {@code to_tsquery} prefix
+ * term so search-as-you-type finds "Inception" while the user is still at "incep". {@code prefix} is
+ * empty when the query does not end in a plain word (a phrase, an exclusion, {@code or}).
+ */
+public record FullTextQuery(String terms, String prefix) {
+
+    private static final Pattern TRAILING_WORD = Pattern.compile("(?:^|\\s)([\\p{L}\\p{N}]+)$");
+
+    public static FullTextQuery parse(String query) {
+        Matcher matcher = TRAILING_WORD.matcher(query);
+        if (!matcher.find() || matcher.group(1).equalsIgnoreCase("or") || insidePhrase(query, matcher.start(1))) {
+            return new FullTextQuery(query, "");
+        }
+        return new FullTextQuery(query.substring(0, matcher.start(1)).trim(), matcher.group(1) + ":*");
+    }
+
+    private static boolean insidePhrase(String query, int position) {
+        return query.substring(0, position).chars().filter(c -> c == '"').count() % 2 == 1;
+    }
+}
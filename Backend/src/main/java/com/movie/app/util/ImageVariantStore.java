@@ -0,0 +1,234 @@
+package com.movie.app.util;
+
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resized poster variants stored under {@code .variants/} next to the originals. Requested sizes are
+ * snapped to a fixed set of widths so the cache stays bounded, and concurrent requests for the same
+ * variant wait on a single encode. Posters and variants that failed to decode or encode are remembered
+ * and not retried, so images ImageIO cannot handle are served as the original without paying for the
+ * attempt on every request.
+ */
+@Slf4j
+public class ImageVariantStore {
+
+    public static final String VARIANT_DIRECTORY = ".variants";
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final Path variantDirectory;
+    private final List<Integer> allowedWidths;
+    private final MediaFileIndex variantIndex;
+    private final Map<String, CompletableFuture<MediaFile>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, int[]> originalDimensions = new ConcurrentHashMap<>();
+    private final Set<String> failedVariants = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantStore(Path imageStorageLocation, List<Integer> allowedWidths) throws IOException {
+        this.variantDirectory = imageStorageLocation.resolve(VARIANT_DIRECTORY);
+        this.allowedWidths = allowedWidths.stream().sorted().toList();
+        Files.createDirectories(variantDirectory);
+        this.variantIndex = new MediaFileIndex(variantDirectory, FileHandlerUtil::detectImageContentType);
+        this.variantIndex.rebuild();
+    }
+
+    /**
+     * Returns the variant closest to the requested box, or empty when the original should be served
+     * (no size requested, the original is already small enough, the format cannot be re-encoded, or
+     * an earlier attempt to encode this variant failed).
+     */
+    public Optional<MediaFile> findOrCreate(MediaFile original, Integer width, Integer height) throws IOException {
+        if (width == null && height == null) {
+            return Optional.empty();
+        }
+        String format = outputFormat(original.contentType());
+        if (format == null) {
+            return Optional.empty();
+        }
+        if (failedVariants.contains(original.uuid())) {
+            return Optional.empty();
+        }
+        int[] dimensions = originalDimensions.get(original.uuid());
+        if (dimensions == null) {
+            try {
+                dimensions = readDimensions(original.path());
+            } catch (IOException e) {
+                failedVariants.add(original.uuid());
+                throw e;
+            }
+            if (dimensions == null) {
+                return Optional.empty();
+            }
+            originalDimensions.put(original.uuid(), dimensions);
+        }
+        int requestedWidth = width != null ? width : (int) Math.ceil((double) height * dimensions[0] / dimensions[1]);
+        int targetWidth = snapWidth(requestedWidth);
+        if (targetWidth >= dimensions[0]) {
+            return Optional.empty();
+        }
+
+        String variantKey = original.uuid() + "_w" + targetWidth;
+        if (failedVariants.contains(variantKey)) {
+            return Optional.empty();
+        }
+        Optional<MediaFile> cached = variantIndex.find(variantKey);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        CompletableFuture<MediaFile> created = new CompletableFuture<>();
+        CompletableFuture<MediaFile> existing = inFlight.putIfAbsent(variantKey, created);
+        if (existing != null) {
+            return Optional.of(join(existing));
+        }
+        try {
+            MediaFile variant = variantIndex.find(variantKey)
+                    .orElseGet(() -> encode(original, variantKey, targetWidth, format));
+            created.complete(variant);
+            return Optional.of(variant);
+        } catch (RuntimeException e) {
+            failedVariants.add(variantKey);
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(variantKey, created);
+        }
+    }
+
+    /**
+     * Deletes every variant of an original that is being removed and returns the bytes freed.
+     */
+    public long deleteVariants(String originalUuid) throws IOException {
+        originalDimensions.remove(originalUuid);
+        long freed = 0;
+        String prefix = originalUuid + "_w";
+        failedVariants.removeIf(key -> key.startsWith(originalUuid));
+        for (MediaFile variant : List.copyOf(variantIndex.all())) {
+            if (variant.uuid().startsWith(prefix)) {
+                variantIndex.remove(variant.uuid());
+                Files.deleteIfExists(variant.path());
+                freed += variant.size();
+            }
+        }
+        return freed;
+    }
+
+    private MediaFile encode(MediaFile original, String variantKey, int targetWidth, String format) {
+        Path target = variantDirectory.resolve(variantKey + "." + format);
+        Path partFile = variantDirectory.resolve(variantKey + "." + format + MediaFileIndex.PARTIAL_SUFFIX);
+        try {
+            BufferedImage source = ImageIO.read(original.path().toFile());
+            if (source == null) {
+                throw new IOException("Unsupported image " + original.filename());
+            }
+            BufferedImage resized = resize(source, targetWidth, format.equals("png"));
+            write(resized, format, partFile);
+            Files.move(partFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Created poster variant {}", target.getFileName());
+            return variantIndex.register(target);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create variant " + variantKey, e);
+        } finally {
+            try {
+                Files.deleteIfExists(partFile);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int targetWidth, boolean keepAlpha) {
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = currentWidth == targetWidth ? targetHeight : Math.max(targetHeight, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = step;
+        } while (currentWidth > targetWidth);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.equals("jpg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private int[] readDimensions(Path image) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private int snapWidth(int requestedWidth) {
+        return allowedWidths.stream()
+                .filter(allowed -> allowed >= requestedWidth)
+                .findFirst()
+                .orElse(allowedWidths.get(allowedWidths.size() - 1));
+    }
+
+    private static String outputFormat(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> "jpg";
+            case "image/png" -> "png";
+            default -> null;
+        };
+    }
+
+    private static MediaFile join(CompletableFuture<MediaFile> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.movie.app.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces background I/O to a byte and an operation budget per second, so maintenance work such as
+ * deleting orphaned media does not compete with streaming for the disks. A limit of zero or less
+ * disables that budget.
+ */
+public class IoRateLimiter {
+
+    private final long bytesPerSecond;
+    private final long operationsPerSecond;
+    private final long startedNanos = System.nanoTime();
+    private long bytes;
+    private long operations;
+
+    public IoRateLimiter(long bytesPerSecond, long operationsPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.operationsPerSecond = operationsPerSecond;
+    }
+
+    /**
+     * Blocks until one more operation touching {@code size} bytes fits into the budget.
+     */
+    public void acquire(long size) throws InterruptedException {
+        bytes += size;
+        operations++;
+        long dueNanos = Math.max(nanosFor(bytes, bytesPerSecond), nanosFor(operations, operationsPerSecond));
+        long waitNanos = dueNanos - (System.nanoTime() - startedNanos);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private static long nanosFor(long amount, long perSecond) {
+        return perSecond > 0 ? (long) (amount * 1e9 / perSecond) : 0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.movie.app.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class MediaFileIndex {
+
+    public static final String PARTIAL_SUFFIX = ".part";
+    private static final int SHARD_DEPTH = 3;
+
+    private final List<Path> directories;
+    private final Function<String, String> contentTypeResolver;
+    private final Map<String, MediaFile> files = new ConcurrentHashMap<>();
+
+    public MediaFileIndex(Path directory, Function<String, String> contentTypeResolver) {
+        this(List.of(directory), contentTypeResolver);
+    }
+
+    public MediaFileIndex(List<Path> directories, Function<String, String> contentTypeResolver) {
+        this.directories = List.copyOf(directories);
+        this.contentTypeResolver = contentTypeResolver;
+    }
+
+    /**
+     * Indexes files placed directly in the directories (flat layout) and files in
+     * {@code ab/cd/} shard directories. Hidden directories such as blob stores are skipped, and a
+     * sharded copy wins over a flat one left behind by an interrupted migration.
+     */
+    public void rebuild() throws IOException {
+        files.clear();
+        List<Path> found = new ArrayList<>();
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            try (Stream<Path> stream = Files.walk(directory, SHARD_DEPTH)) {
+                stream.filter(Files::isRegularFile)
+                        .filter(path -> isMediaFile(directory.relativize(path)))
+                        .forEach(found::add);
+            }
+        }
+        found.sort(Comparator.comparingInt(path -> isShardedPath(path) ? 1 : 0));
+        found.forEach(this::register);
+    }
+
+    private boolean isMediaFile(Path relativePath) {
+        int depth = relativePath.getNameCount();
+        if (depth != 1 && depth != SHARD_DEPTH) {
+            return false;
+        }
+        for (Path element : relativePath) {
+            if (element.toString().startsWith(".")) {
+                return false;
+            }
+        }
+        return !relativePath.getFileName().toString().endsWith(PARTIAL_SUFFIX);
+    }
+
+    private boolean isShardedPath(Path path) {
+        return directories.stream().noneMatch(directory -> directory.equals(path.getParent()));
+    }
+
+    public MediaFile register(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            String filename = path.getFileName().toString();
+            MediaFile mediaFile = new MediaFile(
+                    extractUuid(filename),
+                    path,
+                    attributes.size(),
+                    contentTypeResolver.apply(filename),
+                    attributes.lastModifiedTime().toInstant()
+            );
+            files.put(mediaFile.uuid(), mediaFile);
+            return mediaFile;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot index file " + path, e);
+        }
+    }
+
+    public Optional<MediaFile> find(String uuid) {
+        return Optional.ofNullable(files.get(uuid));
+    }
+
+    public void remove(String uuid) {
+        files.remove(uuid);
+    }
+
+    public Collection<MediaFile> all() {
+        return files.values();
+    }
+
+    public int size() {
+        return files.size();
+    }
+
+    private static String extractUuid(String filename) {
+        int extensionIndex = filename.indexOf('.');
+        return extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename;
+    }
+
+    public record MediaFile(String uuid, Path path, long size, String contentType, Instant lastModified) {
+
+        public String filename() {
+            return path.getFileName().toString();
+        }
+
+        public String etag() {
+            return "\"" + uuid + "-" + Long.toHexString(size) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        }
+    }
+}
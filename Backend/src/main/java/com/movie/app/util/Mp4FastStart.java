@@ -0,0 +1,228 @@
+package com.movie.app.util;
+
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Minimal ISO-BMFF (MP4/MOV) box walker. Moves a trailing {@code moov} box in front of the media
+ * data so players can start without seeking to the end of the file, and reads the movie duration
+ * from {@code mvhd}.
+ */
+@NoArgsConstructor
+public class Mp4FastStart {
+
+    private static final int MAX_MOOV_SIZE = 64 * 1024 * 1024;
+    private static final Set<String> CONTAINER_BOXES = Set.of("moov", "trak", "mdia", "minf", "stbl");
+
+    public static Optional<Integer> readDurationSeconds(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Box moov = findBox(readTopLevelBoxes(channel), "moov");
+            if (moov == null || moov.size() > MAX_MOOV_SIZE) {
+                return Optional.empty();
+            }
+            return readDurationSeconds(readBox(channel, moov));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rewrites {@code file} into {@code workFile} with {@code moov} placed before the first {@code mdat}
+     * and the chunk offset tables shifted accordingly. Returns false when the file is not an MP4, is
+     * already fast-start, or cannot be rewritten safely; {@code workFile} is then left untouched.
+     */
+    public static boolean rewrite(Path file, Path workFile) throws IOException {
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Box> boxes = readTopLevelBoxes(source);
+            Box moov = findBox(boxes, "moov");
+            Box mdat = findBox(boxes, "mdat");
+            if (moov == null || mdat == null || moov.offset() < mdat.offset() || moov.size() > MAX_MOOV_SIZE) {
+                return false;
+            }
+
+            ByteBuffer moovData = readBox(source, moov);
+            if (!shiftChunkOffsets(moovData, 0, moovData.limit(), mdat.offset(), moov.offset(), moov.size())) {
+                return false;
+            }
+
+            try (FileChannel target = FileChannel.open(workFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                transfer(source, target, 0, mdat.offset());
+                moovData.rewind();
+                while (moovData.hasRemaining()) {
+                    target.write(moovData);
+                }
+                transfer(source, target, mdat.offset(), moov.offset() - mdat.offset());
+                long afterMoov = moov.offset() + moov.size();
+                transfer(source, target, afterMoov, source.size() - afterMoov);
+                target.force(true);
+            }
+            return true;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    private static List<Box> readTopLevelBoxes(FileChannel channel) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        long fileSize = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(16);
+        while (position + 8 <= fileSize) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            if (header.remaining() < 8) {
+                break;
+            }
+            long size = Integer.toUnsignedLong(header.getInt(0));
+            String type = new String(header.array(), 4, 4, StandardCharsets.ISO_8859_1);
+            if (size == 1) {
+                if (header.remaining() < 16) {
+                    break;
+                }
+                size = header.getLong(8);
+            } else if (size == 0) {
+                size = fileSize - position;
+            }
+            if (size < 8 || position + size > fileSize) {
+                throw new IllegalArgumentException("Malformed box " + type + " at offset " + position);
+            }
+            boxes.add(new Box(type, position, size));
+            position += size;
+        }
+        return boxes;
+    }
+
+    private static boolean shiftChunkOffsets(ByteBuffer moov, int start, int end, long from, long to, long delta) {
+        int position = start;
+        while (position + 8 <= end) {
+            long size = Integer.toUnsignedLong(moov.getInt(position));
+            String type = boxType(moov, position);
+            int headerSize = 8;
+            if (size == 1) {
+                size = moov.getLong(position + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < headerSize || position + size > end) {
+                throw new IllegalArgumentException("Malformed box " + type);
+            }
+            int body = position + headerSize;
+            if (CONTAINER_BOXES.contains(type) && !shiftChunkOffsets(moov, body, (int) (position + size), from, to, delta)) {
+                return false;
+            }
+            if (type.equals("stco")) {
+                int count = entryCount(moov, body, position + size, 4, type);
+                for (int i = 0; i < count; i++) {
+                    int entry = body + 8 + i * 4;
+                    long offset = Integer.toUnsignedLong(moov.getInt(entry));
+                    if (offset >= from && offset < to) {
+                        offset += delta;
+                        if (offset > 0xFFFFFFFFL) {
+                            return false;
+                        }
+                        moov.putInt(entry, (int) offset);
+                    }
+                }
+            } else if (type.equals("co64")) {
+                int count = entryCount(moov, body, position + size, 8, type);
+                for (int i = 0; i < count; i++) {
+                    int entry = body + 8 + i * 8;
+                    long offset = moov.getLong(entry);
+                    if (offset >= from && offset < to) {
+                        moov.putLong(entry, offset + delta);
+                    }
+                }
+            }
+            position += (int) size;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the entry count of a chunk offset table, rejecting counts that would run past the end of
+     * the box: the table is patched in place, so a forged count must not reach neighbouring boxes.
+     */
+    private static int entryCount(ByteBuffer moov, int body, long boxEnd, int entrySize, String type) {
+        if (body + 8 > boxEnd) {
+            throw new IllegalArgumentException("Truncated " + type + " box");
+        }
+        long count = Integer.toUnsignedLong(moov.getInt(body + 4));
+        if (count * entrySize > boxEnd - body - 8) {
+            throw new IllegalArgumentException("Entry count " + count + " overruns " + type + " box");
+        }
+        return (int) count;
+    }
+
+    private static Optional<Integer> readDurationSeconds(ByteBuffer moov) {
+        int position = 8;
+        while (position + 8 <= moov.limit()) {
+            int size = moov.getInt(position);
+            if (size < 8) {
+                break;
+            }
+            if (boxType(moov, position).equals("mvhd")) {
+                int body = position + 8;
+                int version = moov.get(body) & 0xFF;
+                long timescale;
+                long duration;
+                if (version == 1) {
+                    timescale = Integer.toUnsignedLong(moov.getInt(body + 20));
+                    duration = moov.getLong(body + 24);
+                } else {
+                    timescale = Integer.toUnsignedLong(moov.getInt(body + 12));
+                    duration = Integer.toUnsignedLong(moov.getInt(body + 16));
+                }
+                if (timescale == 0 || duration <= 0) {
+                    return Optional.empty();
+                }
+                return Optional.of((int) Math.round((double) duration / timescale));
+            }
+            position += size;
+        }
+        return Optional.empty();
+    }
+
+    private static ByteBuffer readBox(FileChannel channel, Box box) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) box.size());
+        while (data.hasRemaining()) {
+            if (channel.read(data, box.offset() + data.position()) < 0) {
+                throw new IOException("Unexpected end of file in box " + box.type());
+            }
+        }
+        data.flip();
+        return data;
+    }
+
+    private static void transfer(FileChannel source, FileChannel target, long position, long count) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            transferred += source.transferTo(position + transferred, count - transferred, target);
+        }
+    }
+
+    private static Box findBox(List<Box> boxes, String type) {
+        return boxes.stream().filter(box -> box.type().equals(type)).findFirst().orElse(null);
+    }
+
+    private static String boxType(ByteBuffer buffer, int position) {
+        byte[] type = new byte[4];
+        buffer.get(position + 4, type);
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+
+    private record Box(String type, long offset, long size) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.movie.app.util;
+
+import com.movie.app.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by {@code created_at DESC, id DESC}. Clients get it as an opaque string
+ * and send it back to continue after the last row they saw, so the next page is an index seek with
+ * {@code (created_at, id) < (?, ?)} instead of an OFFSET scan.
+ */
+public record PageCursor(Instant createdAt, long id) {
+
+    /**
+     * Sorts before every row, i.e. the first page.
+     */
+    public static final PageCursor START = new PageCursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    public String encode() {
+        String position = createdAt.getEpochSecond() + "." + createdAt.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor from a request; a blank cursor starts at the first page.
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+            if (position.length != 3) {
+                throw new InvalidCursorException("Invalid page cursor: " + cursor);
+            }
+            return new PageCursor(
+                    Instant.ofEpochSecond(Long.parseLong(position[0]), Long.parseLong(position[1])),
+                    Long.parseLong(position[2]));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new InvalidCursorException("Invalid page cursor: " + cursor);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package com.movie.app.util;
 import com.movie.app.dto.response.PageResponse;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @NoArgsConstructor
@@ -25,7 +28,7 @@ public class PaginationUtils {
     public static <T, R> PageResponse<R> toPageResponse(Page<T> page, Function<T, R> mapper) {
         List<R> content = page.getContent().stream().map(mapper).toList();
 
-        return new PageResponse<>(content, page.getTotalElements(), page.getTotalPages(), page.getNumber(), page.getSize());
+        return new PageResponse<>(content, page.getTotalElements(), page.getTotalPages(), page.getNumber(), page.getSize(), null, page.hasNext());
     }
 
     public static <R> PageResponse<R> toPageResponse(Page<?> page, List<R> mapper) {
@@ -34,8 +37,45 @@ public class PaginationUtils {
                 page.getTotalElements(),
                 page.getTotalPages(),
                 page.getNumber(),
-                page.getSize()
+                page.getSize(),
+                null,
+                page.hasNext()
         );
     }
 
+    /**
+     * Builds a keyset page from up to {@code size + 1} rows; the extra row only signals that a next
+     * page exists. Totals are left empty because counting would cost what the cursor saves.
+     */
+    public static <T, R> PageResponse<R> toCursorPageResponse(List<T> rows, int size, Function<T, R> mapper,
+                                                             Function<T, PageCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new PageResponse<>(page.stream().map(mapper).toList(), null, null, null, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Response for a slice fetched with {@code size + 1} rows and no count query; totals stay empty.
+     */
+    public static <R> PageResponse<R> toSliceResponse(Slice<?> slice, List<R> content) {
+        return new PageResponse<>(content, null, null, slice.getNumber(), slice.getSize(), null, slice.hasNext());
+    }
+
+    public static <T, R> PageResponse<R> toSliceResponse(Slice<T> slice, Function<T, R> mapper) {
+        return toSliceResponse(slice, slice.getContent().stream().map(mapper).toList());
+    }
+
+    /**
+     * Turns a slice into a page, asking for the total only when the slice cannot tell it: a slice
+     * without a next page that has rows ends the list, so its total is known.
+     */
+    public static <T> Page<T> withTotal(Slice<T> slice, LongSupplier total) {
+        Pageable pageable = slice.getPageable();
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            return new PageImpl<>(slice.getContent(), pageable, pageable.getOffset() + slice.getNumberOfElements());
+        }
+        return new PageImpl<>(slice.getContent(), pageable, total.getAsLong());
+    }
+
 }
@@ -0,0 +1,86 @@
+package com.movie.app.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted copy-on-write array of ids (the published videos) that hands out random distinct ids in
+ * O(count), so featured videos come from a primary-key lookup instead of {@code ORDER BY RANDOM()}
+ * over the whole table. Writes copy the array; they only happen on admin changes.
+ */
+public class RandomIdSampler {
+
+    private volatile long[] ids = new long[0];
+
+    public synchronized void reset(Collection<Long> values) {
+        this.ids = values.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    public synchronized void add(long id) {
+        long[] current = ids;
+        int index = Arrays.binarySearch(current, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        this.ids = updated;
+    }
+
+    public synchronized void remove(long id) {
+        long[] current = ids;
+        int index = Arrays.binarySearch(current, id);
+        if (index < 0) {
+            return;
+        }
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        this.ids = updated;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Up to {@code count} distinct ids in random order (Floyd's sampling).
+     */
+    public long[] sample(int count) {
+        long[] snapshot = ids;
+        int n = snapshot.length;
+        int k = Math.min(count, n);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] picked = new int[k];
+        int size = 0;
+        for (int j = n - k; j < n; j++) {
+            int candidate = random.nextInt(j + 1);
+            picked[size++] = contains(picked, size - 1, candidate) ? j : candidate;
+        }
+        // Floyd's picks are a uniform subset; shuffle so the order is random as well
+        for (int i = k - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int tmp = picked[i];
+            picked[i] = picked[swap];
+            picked[swap] = tmp;
+        }
+        long[] sample = new long[k];
+        for (int i = 0; i < k; i++) {
+            sample[i] = snapshot[picked[i]];
+        }
+        return sample;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,265 @@
+package com.movie.app.util;
+
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects viewers that request a file front to back and reads the next chunks on a small I/O pool
+ * before they are asked for. The bytes are discarded: the point is to have the kernel page cache hold
+ * them when the range is served through the usual sendfile or stream path. The read-ahead depth
+ * shrinks as warmed but not yet requested bytes approach the budget, and chunks nobody asked for
+ * within the expiry time are counted as waste.
+ */
+@Slf4j
+public class ReadAheadPrefetcher implements AutoCloseable {
+
+    private static final int SEQUENTIAL_THRESHOLD = 2;
+    private static final int MAX_TRACKED_FILES = 1024;
+    private static final int MAX_OPEN_CHANNELS = 64;
+
+    private final int chunkSize;
+    private final int readAheadChunks;
+    private final long maxBytes;
+    private final long expiryNanos;
+    private final ThreadPoolExecutor ioPool;
+    private final BlockingQueue<ByteBuffer> readBuffers;
+
+    private final Map<String, AccessPattern> patterns = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, AccessPattern> eldest) {
+            return size() > MAX_TRACKED_FILES;
+        }
+    };
+    private final Map<String, FileChannel> channels = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileChannel> eldest) {
+            if (size() <= MAX_OPEN_CHANNELS) {
+                return false;
+            }
+            closeQuietly(eldest.getValue());
+            return true;
+        }
+    };
+    private final Map<String, Warmed> warmed = new LinkedHashMap<>();
+    private final Set<String> pending = new HashSet<>();
+    private long warmedBytes;
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder wasted = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public ReadAheadPrefetcher(int chunkSize, int readAheadChunks, long maxBytes, int threads, long expiryMillis) {
+        this.chunkSize = chunkSize;
+        this.readAheadChunks = readAheadChunks;
+        this.maxBytes = maxBytes;
+        this.expiryNanos = TimeUnit.MILLISECONDS.toNanos(expiryMillis);
+        this.readBuffers = new ArrayBlockingQueue<>(threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.ioPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * readAheadChunks * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "read-ahead-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.ioPool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Records a served range, counting the warmed chunks it touches as hits, and, once the file is
+     * being read sequentially, schedules the chunks that follow it.
+     */
+    public void recordAccess(MediaFile mediaFile, long rangeStart, long rangeLength) {
+        long rangeEnd = rangeStart + rangeLength;
+        List<Long> toWarm = new ArrayList<>();
+        synchronized (this) {
+            expire();
+            for (long chunkIndex = rangeStart / chunkSize; chunkIndex <= (rangeEnd - 1) / chunkSize; chunkIndex++) {
+                Warmed chunk = warmed.remove(key(mediaFile, chunkIndex));
+                if (chunk != null) {
+                    warmedBytes -= chunk.length;
+                    hits.increment();
+                }
+            }
+
+            AccessPattern pattern = patterns.computeIfAbsent(mediaFile.etag(), etag -> new AccessPattern());
+            boolean sequential = pattern.nextOffset >= 0 && Math.abs(rangeStart - pattern.nextOffset) <= chunkSize;
+            pattern.streak = sequential ? pattern.streak + 1 : 1;
+            pattern.nextOffset = rangeEnd;
+            if (pattern.streak < SEQUENTIAL_THRESHOLD || rangeEnd >= mediaFile.size()) {
+                return;
+            }
+
+            int depth = (int) Math.ceil(readAheadChunks * Math.max(0, 1 - (double) warmedBytes / maxBytes));
+            if (depth == 0) {
+                skipped.increment();
+                return;
+            }
+            long firstChunk = rangeEnd / chunkSize;
+            long lastChunk = Math.min((mediaFile.size() - 1) / chunkSize, firstChunk + depth - 1);
+            for (long chunkIndex = firstChunk; chunkIndex <= lastChunk; chunkIndex++) {
+                String key = key(mediaFile, chunkIndex);
+                if (!warmed.containsKey(key) && pending.add(key)) {
+                    toWarm.add(chunkIndex);
+                }
+            }
+        }
+        for (long chunkIndex : toWarm) {
+            String key = key(mediaFile, chunkIndex);
+            try {
+                ioPool.execute(() -> warm(mediaFile, chunkIndex, key));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    pending.remove(key);
+                }
+                skipped.increment();
+            }
+        }
+    }
+
+    private void warm(MediaFile mediaFile, long chunkIndex, String key) {
+        long chunkStart = chunkIndex * chunkSize;
+        int length = (int) Math.min(chunkSize, mediaFile.size() - chunkStart);
+        synchronized (this) {
+            if (warmedBytes + length > maxBytes) {
+                pending.remove(key);
+                skipped.increment();
+                return;
+            }
+            warmedBytes += length;
+        }
+        boolean loaded = false;
+        ByteBuffer buffer = readBuffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(chunkSize);
+        }
+        try {
+            FileChannel channel = channel(mediaFile);
+            buffer.clear().limit(length);
+            while (buffer.hasRemaining() && channel.read(buffer, chunkStart + buffer.position()) != -1) {
+                // keep reading until the chunk is in the page cache
+            }
+            loaded = true;
+        } catch (IOException e) {
+            log.debug("Read-ahead of {} failed: {}", key, e.getMessage());
+        } finally {
+            readBuffers.offer(buffer);
+            synchronized (this) {
+                pending.remove(key);
+                if (loaded) {
+                    warmed.put(key, new Warmed(length, System.nanoTime()));
+                    issued.increment();
+                } else {
+                    warmedBytes -= length;
+                }
+            }
+        }
+    }
+
+    private synchronized FileChannel channel(MediaFile mediaFile) throws IOException {
+        FileChannel channel = channels.get(mediaFile.etag());
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(mediaFile.path(), StandardOpenOption.READ);
+            channels.put(mediaFile.etag(), channel);
+        }
+        return channel;
+    }
+
+    private void expire() {
+        long now = System.nanoTime();
+        Iterator<Warmed> iterator = warmed.values().iterator();
+        while (iterator.hasNext()) {
+            Warmed chunk = iterator.next();
+            if (now - chunk.warmedAt < expiryNanos) {
+                break;
+            }
+            iterator.remove();
+            warmedBytes -= chunk.length;
+            wasted.increment();
+        }
+    }
+
+    private static String key(MediaFile mediaFile, long chunkIndex) {
+        return mediaFile.etag() + ":" + chunkIndex;
+    }
+
+    public synchronized long sizeInBytes() {
+        return warmedBytes;
+    }
+
+    public synchronized int warmedChunkCount() {
+        return warmed.size();
+    }
+
+    public long issuedCount() {
+        return issued.sum();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long wastedCount() {
+        return wasted.sum();
+    }
+
+    public long skippedCount() {
+        return skipped.sum();
+    }
+
+    public double hitRatio() {
+        long total = issuedCount();
+        return total == 0 ? 0 : (double) hitCount() / total;
+    }
+
+    public double wasteRatio() {
+        long total = issuedCount();
+        return total == 0 ? 0 : (double) wastedCount() / total;
+    }
+
+    @Override
+    public void close() {
+        ioPool.shutdownNow();
+        synchronized (this) {
+            channels.values().forEach(ReadAheadPrefetcher::closeQuietly);
+            channels.clear();
+            warmed.clear();
+            warmedBytes = 0;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Could not close read-ahead channel: {}", e.getMessage());
+        }
+    }
+
+    private static class AccessPattern {
+        private long nextOffset = -1;
+        private int streak;
+    }
+
+    private record Warmed(int length, long warmedAt) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.movie.app.util;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes a resource with servlet non-blocking I/O. The container calls back whenever the socket can
+ * take more data, so a slow viewer holds no thread at all between writes; the request thread is
+ * released as soon as {@link #start} returns.
+ * <p>
+ * Container threads never touch the disk: each chunk is read on {@code readExecutor} and handed back
+ * to a container thread through {@link AsyncContext#start}, which only performs the non-blocking write.
+ * A response has at most one read outstanding, so the executor's queue is bounded by the number of
+ * open responses.
+ */
+@Slf4j
+public class ResourceWriteListener implements WriteListener, AsyncListener {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NOTHING_READ = -2;
+    private static final int END_OF_INPUT = -1;
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream output;
+    private final InputStream input;
+    private final Executor readExecutor;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    // Bytes in buffer waiting to be written, END_OF_INPUT once the input is exhausted, or NOTHING_READ
+    private volatile int readLength = NOTHING_READ;
+    // Drain requests; only the caller that raises it from zero writes, the others leave it a note
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    private ResourceWriteListener(AsyncContext asyncContext, ServletOutputStream output, InputStream input,
+                                  Executor readExecutor) {
+        this.asyncContext = asyncContext;
+        this.output = output;
+        this.input = input;
+        this.readExecutor = readExecutor;
+    }
+
+    public static void start(HttpServletRequest request, HttpServletResponse response, Resource resource,
+                             long timeoutMillis, Executor readExecutor) throws IOException {
+        InputStream input = resource.getInputStream();
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeoutMillis);
+        ResourceWriteListener listener = new ResourceWriteListener(asyncContext, response.getOutputStream(), input,
+                readExecutor);
+        asyncContext.addListener(listener);
+        listener.output.setWriteListener(listener);
+        listener.readNext();
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    private void readNext() {
+        try {
+            readExecutor.execute(this::read);
+        } catch (RejectedExecutionException e) {
+            log.debug("Streaming response aborted: no reader available");
+            asyncContext.complete();
+        }
+    }
+
+    private void read() {
+        try {
+            readLength = input.read(buffer);
+        } catch (IOException e) {
+            log.debug("Streaming response aborted: {}", e.getMessage());
+            asyncContext.complete();
+            return;
+        }
+        try {
+            asyncContext.start(this::drain);
+        } catch (IllegalStateException e) {
+            // The response was completed (client gone or timed out) while the chunk was being read
+            closeInput();
+        }
+    }
+
+    /**
+     * Runs {@link #writeReadChunk} on one thread at a time. A request arriving while another thread
+     * is writing makes that thread go round once more, so a chunk that lands meanwhile is not missed.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            try {
+                writeReadChunk();
+            } catch (IOException e) {
+                onError(e);
+            }
+            requests = drainRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private void writeReadChunk() throws IOException {
+        int length = readLength;
+        // When the socket is not ready the container calls onWritePossible once it is
+        if (length == NOTHING_READ || !output.isReady()) {
+            return;
+        }
+        readLength = NOTHING_READ;
+        if (length == END_OF_INPUT) {
+            asyncContext.complete();
+            return;
+        }
+        output.write(buffer, 0, length);
+        readNext();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.debug("Streaming response aborted: {}", throwable.getMessage());
+        asyncContext.complete();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        closeInput();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        asyncContext.complete();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        closeInput();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void closeInput() {
+        try {
+            input.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
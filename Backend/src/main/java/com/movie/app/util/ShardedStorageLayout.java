@@ -0,0 +1,103 @@
+package com.movie.app.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Decides where a stored file lives. New files go to {@code <root>/<ab>/<cd>/<filename>}, where the
+ * root is picked from the configured mount points by consistent hashing on the UUID (adding a disk
+ * only relocates about 1/n of the files) and {@code ab/cd} are the first characters of the UUID.
+ * Files in the old flat layout directly under the legacy directory keep being found and served.
+ */
+public class ShardedStorageLayout {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private final Path legacyDirectory;
+    private final List<Path> roots;
+    private final boolean sharded;
+    private final NavigableMap<Long, Path> ring = new TreeMap<>();
+
+    public ShardedStorageLayout(Path legacyDirectory, List<Path> roots, boolean sharded) {
+        this.legacyDirectory = legacyDirectory;
+        this.roots = roots.isEmpty() ? List.of(legacyDirectory) : List.copyOf(roots);
+        this.sharded = sharded;
+        for (Path root : this.roots) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash(root + "#" + node), root);
+            }
+        }
+    }
+
+    public void createDirectories() throws IOException {
+        for (Path directory : directories()) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * All directories that may contain files, the legacy flat directory first.
+     */
+    public List<Path> directories() {
+        Set<Path> directories = new LinkedHashSet<>();
+        directories.add(legacyDirectory);
+        directories.addAll(roots);
+        return new ArrayList<>(directories);
+    }
+
+    public Path resolve(String filename) {
+        if (!sharded) {
+            return legacyDirectory.resolve(filename);
+        }
+        String shardKey = shardKey(filename);
+        return rootFor(filename)
+                .resolve(shardKey.substring(0, 2))
+                .resolve(shardKey.substring(2, 4))
+                .resolve(filename);
+    }
+
+    public Path rootFor(String filename) {
+        if (!sharded) {
+            return legacyDirectory;
+        }
+        Long position = ring.ceilingKey(hash(uuidOf(filename)));
+        return ring.get(position != null ? position : ring.firstKey());
+    }
+
+    public boolean isInPlace(Path path) {
+        return path.equals(resolve(path.getFileName().toString()));
+    }
+
+    private static String shardKey(String filename) {
+        String uuid = uuidOf(filename).toLowerCase();
+        if (uuid.length() >= 4 && uuid.substring(0, 4).chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return uuid;
+        }
+        return Long.toHexString(hash(uuid) | Long.MIN_VALUE);
+    }
+
+    private static String uuidOf(String filename) {
+        int extensionIndex = filename.indexOf('.');
+        return extensionIndex > 0 ? filename.substring(0, extensionIndex) : filename;
+    }
+
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
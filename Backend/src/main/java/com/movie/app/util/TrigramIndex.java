@@ -0,0 +1,284 @@
+package com.movie.app.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over video titles and descriptions. Every word is padded with a
+ * space on both sides and split into 3-character windows, so a query matches substrings ("atrix"
+ * shares most trigrams with "matrix") and survives small typos. Posting lists are sorted int arrays
+ * of video ids; results are ranked by how many of the query's trigrams a title, then a description,
+ * contains.
+ */
+public class TrigramIndex {
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final double minSimilarity;
+    private final Map<Long, PostingList> titlePostings = new HashMap<>();
+    private final Map<Long, PostingList> descriptionPostings = new HashMap<>();
+    private final Map<Integer, long[][]> documentTrigrams = new HashMap<>();
+    private final BitSet published = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TrigramIndex(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    public void put(long videoId, String title, String description, boolean isPublished) {
+        int id = Math.toIntExact(videoId);
+        long[] titleTrigrams = trigrams(title);
+        long[] descriptionTrigrams = trigrams(description);
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            for (long trigram : titleTrigrams) {
+                titlePostings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+            }
+            for (long trigram : descriptionTrigrams) {
+                descriptionPostings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+            }
+            documentTrigrams.put(id, new long[][]{titleTrigrams, descriptionTrigrams});
+            published.set(id, isPublished);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setPublished(long videoId, boolean isPublished) {
+        lock.writeLock().lock();
+        try {
+            published.set(Math.toIntExact(videoId), isPublished);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long videoId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(Math.toIntExact(videoId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTrigrams.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of matching videos, best match first; ties go to the newer (higher) id.
+     */
+    public long[] search(String query, boolean publishedOnly) {
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0) {
+            return new long[0];
+        }
+        int minMatches = Math.max(1, (int) Math.ceil(queryTrigrams.length * minSimilarity));
+        ScoreTable titleHits = new ScoreTable();
+        ScoreTable descriptionHits = new ScoreTable();
+        lock.readLock().lock();
+        try {
+            for (long trigram : queryTrigrams) {
+                count(titlePostings.get(trigram), titleHits, publishedOnly);
+                count(descriptionPostings.get(trigram), descriptionHits, publishedOnly);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ScoreTable scores = new ScoreTable();
+        titleHits.forEach((id, hits) -> {
+            if (hits >= minMatches) {
+                scores.add(id, hits * TITLE_WEIGHT * queryTrigrams.length);
+            }
+        });
+        descriptionHits.forEach((id, hits) -> {
+            if (hits >= minMatches || scores.get(id) > 0) {
+                scores.add(id, hits * DESCRIPTION_WEIGHT);
+            }
+        });
+
+        // Pack score and id into one long so a primitive sort ranks them
+        long[] ranked = new long[scores.size()];
+        int[] position = {0};
+        scores.forEach((id, score) -> ranked[position[0]++] = ((long) score << 32) | id);
+        Arrays.sort(ranked);
+        long[] ids = new long[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            ids[i] = ranked[ranked.length - 1 - i] & 0xFFFFFFFFL;
+        }
+        return ids;
+    }
+
+    private void count(PostingList postings, ScoreTable hits, boolean publishedOnly) {
+        if (postings == null) {
+            return;
+        }
+        for (int i = 0; i < postings.size; i++) {
+            int id = postings.ids[i];
+            if (!publishedOnly || published.get(id)) {
+                hits.add(id, 1);
+            }
+        }
+    }
+
+    private void removeDocument(int id) {
+        long[][] previous = documentTrigrams.remove(id);
+        if (previous == null) {
+            return;
+        }
+        removePostings(titlePostings, previous[0], id);
+        removePostings(descriptionPostings, previous[1], id);
+        published.clear(id);
+    }
+
+    private static void removePostings(Map<Long, PostingList> postings, long[] trigrams, int id) {
+        for (long trigram : trigrams) {
+            PostingList list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    static long[] trigrams(String text) {
+        if (text == null || text.isBlank()) {
+            return new long[0];
+        }
+        Set<Long> trigrams = new LinkedHashSet<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+            }
+        }
+        return trigrams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class PostingList {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insertAt(-index - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Open-addressing int to int map, so scoring a query does not box every candidate id.
+     */
+    private static final class ScoreTable {
+
+        private int[] keys = new int[64];
+        private int[] values = new int[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        void add(int key, int delta) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int slot = slot(keys, used, key);
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] += delta;
+        }
+
+        int get(int key) {
+            int slot = slot(keys, used, key);
+            return used[slot] ? values[slot] : 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(IntIntConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slot(keys, used, oldKeys[i]);
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int slot(int[] keys, boolean[] used, int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
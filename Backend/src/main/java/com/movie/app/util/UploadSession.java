@@ -0,0 +1,242 @@
+package com.movie.app.util;
+
+import com.movie.app.dto.response.UploadSessionResponse;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * A resumable upload writing straight into its preallocated target file. Chunks may arrive in
+ * any order and in parallel; positional writes on the shared channel don't need a lock, only the
+ * bookkeeping of committed ranges does. Writers share a read lock that closing takes exclusively, so
+ * completing or expiring a session waits for chunks still being written.
+ * <p>
+ * The id, size and committed ranges live in a hidden sidecar next to the part file, rewritten after
+ * each chunk has been forced to disk, so {@link #restore} can pick the upload up after a restart.
+ */
+public class UploadSession {
+
+    public static final String SESSION_SUFFIX = ".session";
+
+    @Getter
+    private final String uploadId;
+    @Getter
+    private final String filename;
+    @Getter
+    private final long size;
+    @Getter
+    private final Path partFile;
+    @Getter
+    private final Path sessionFile;
+    @Getter
+    private volatile Instant lastActivityAt = Instant.now();
+    private final FileChannel channel;
+    private final TreeMap<Long, Long> committedRanges = new TreeMap<>();
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public UploadSession(String uploadId, String filename, long size, Path partFile) throws IOException {
+        this(uploadId, filename, size, partFile, preallocate(partFile, size));
+        saveSessionFile();
+    }
+
+    private UploadSession(String uploadId, String filename, long size, Path partFile, FileChannel channel) {
+        this.uploadId = uploadId;
+        this.filename = filename;
+        this.size = size;
+        this.partFile = partFile;
+        this.sessionFile = sessionFileFor(partFile, uploadId);
+        this.channel = channel;
+    }
+
+    /**
+     * Reopens the upload described by a sidecar written by an earlier run. Its idle time counts from
+     * the last chunk, so uploads abandoned before the restart still expire on schedule.
+     *
+     * @throws IOException when the sidecar is unreadable or its part file is missing or of the wrong size
+     */
+    public static UploadSession restore(Path sessionFile) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(sessionFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String uploadId = properties.getProperty("uploadId");
+        String partName = properties.getProperty("partFile");
+        String size = properties.getProperty("size");
+        if (uploadId == null || partName == null || size == null) {
+            throw new IOException("Incomplete upload session file " + sessionFile);
+        }
+        Path partFile = sessionFile.resolveSibling(partName);
+        if (!Files.isRegularFile(partFile) || Files.size(partFile) != Long.parseLong(size)) {
+            throw new IOException("Part file of upload session " + sessionFile + " is missing or truncated");
+        }
+        UploadSession session = new UploadSession(uploadId, properties.getProperty("filename"),
+                Long.parseLong(size), partFile, FileChannel.open(partFile, StandardOpenOption.WRITE));
+        String ranges = properties.getProperty("committedRanges", "");
+        try {
+            for (String range : ranges.split(",")) {
+                if (!range.isEmpty()) {
+                    int dash = range.indexOf('-');
+                    session.committedRanges.put(Long.parseLong(range.substring(0, dash)), Long.parseLong(range.substring(dash + 1)));
+                }
+            }
+        } catch (RuntimeException ex) {
+            session.channel.close();
+            throw new IOException("Malformed committed ranges in " + sessionFile, ex);
+        }
+        session.lastActivityAt = Files.getLastModifiedTime(sessionFile).toInstant();
+        return session;
+    }
+
+    public static boolean isSessionFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(".") && name.endsWith(SESSION_SUFFIX);
+    }
+
+    private static Path sessionFileFor(Path partFile, String uploadId) {
+        return partFile.resolveSibling("." + uploadId + SESSION_SUFFIX);
+    }
+
+    private static FileChannel preallocate(Path partFile, long size) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(partFile.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        return FileChannel.open(partFile, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * @throws ClosedChannelException when the session was completed or expired meanwhile
+     */
+    public long writeChunk(long offset, InputStream body, long length) throws IOException {
+        lifecycle.readLock().lock();
+        try {
+            if (closed) {
+                throw new ClosedChannelException();
+            }
+            lastActivityAt = Instant.now();
+            long limit = Math.min(length, size - offset);
+            ReadableByteChannel source = Channels.newChannel(body);
+            long written = 0;
+            try {
+                while (written < limit) {
+                    long transferred = channel.transferFrom(source, offset + written, limit - written);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    written += transferred;
+                }
+            } finally {
+                if (written > 0) {
+                    commit(offset, offset + written);
+                }
+                lastActivityAt = Instant.now();
+            }
+            return written;
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    public boolean isIdleSince(Instant cutoff) {
+        return lastActivityAt.isBefore(cutoff);
+    }
+
+    public synchronized long committedOffset() {
+        Map.Entry<Long, Long> first = committedRanges.firstEntry();
+        return first != null && first.getKey() == 0 ? first.getValue() : 0;
+    }
+
+    public synchronized long receivedBytes() {
+        return committedRanges.entrySet().stream().mapToLong(range -> range.getValue() - range.getKey()).sum();
+    }
+
+    public boolean isComplete() {
+        return committedOffset() == size;
+    }
+
+    public void close(boolean flush) throws IOException {
+        lifecycle.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (flush) {
+                channel.force(true);
+            }
+            channel.close();
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the session and deletes its part file, for uploads that were abandoned.
+     */
+    public void abort() throws IOException {
+        close(false);
+        Files.deleteIfExists(partFile);
+        Files.deleteIfExists(sessionFile);
+    }
+
+    public UploadSessionResponse toResponse() {
+        return new UploadSessionResponse(uploadId, filename, size, committedOffset(), receivedBytes(), isComplete());
+    }
+
+    /**
+     * Records a written range once its bytes are on disk, so the sidecar never claims data a crash
+     * could still lose.
+     */
+    private synchronized void commit(long start, long end) throws IOException {
+        channel.force(false);
+        Map.Entry<Long, Long> floor = committedRanges.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+        Map.Entry<Long, Long> next = committedRanges.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            committedRanges.remove(next.getKey());
+            next = committedRanges.ceilingEntry(start);
+        }
+        committedRanges.put(start, end);
+        saveSessionFile();
+    }
+
+    private synchronized void saveSessionFile() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("uploadId", uploadId);
+        properties.setProperty("filename", filename);
+        properties.setProperty("size", String.valueOf(size));
+        properties.setProperty("partFile", partFile.getFileName().toString());
+        properties.setProperty("committedRanges", committedRanges.entrySet().stream()
+                .map(range -> range.getKey() + "-" + range.getValue())
+                .collect(Collectors.joining(",")));
+        Path tempFile = sessionFile.resolveSibling(sessionFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        Files.move(tempFile, sessionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
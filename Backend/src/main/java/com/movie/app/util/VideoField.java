@@ -0,0 +1,94 @@
+package com.movie.app.util;
+
+import com.movie.app.dto.response.VideoResponse;
+import com.movie.app.entity.Video;
+import com.movie.app.exception.InvalidFieldsException;
+import jakarta.persistence.Tuple;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Fields a video list can be narrowed to with {@code ?fields=id,title,poster}. Column fields are
+ * selected in a JPQL tuple query; categories and the watchlist flag need a query of their own and
+ * are only loaded when asked for.
+ */
+public enum VideoField {
+
+    ID("id", "v.id", (response, value) -> response.setId((Long) value)),
+    TITLE("title", "v.title", (response, value) -> response.setTitle((String) value)),
+    DESCRIPTION("description", "v.description", (response, value) -> response.setDescription((String) value)),
+    YEAR("year", "v.year", (response, value) -> response.setYear((Integer) value)),
+    RATING("rating", "v.rating", (response, value) -> response.setRating((String) value)),
+    DURATION("duration", "v.duration", (response, value) -> response.setDuration((Integer) value)),
+    SRC("src", "v.srcUuid", (response, value) -> response.setSrc(Video.videoUrl((String) value))),
+    POSTER("poster", "v.posterUuid", (response, value) -> response.setPoster(Video.imageUrl((String) value))),
+    POSTER_PLACEHOLDER("posterPlaceholder", "v.posterPlaceholder", (response, value) -> response.setPosterPlaceholder((String) value)),
+    PUBLISHED("published", "v.published", (response, value) -> response.setPublished((Boolean) value)),
+    CREATED_AT("createdAt", "v.createdAt", (response, value) -> response.setCreatedAt((Instant) value)),
+    UPDATED_AT("updatedAt", "v.updatedAt", (response, value) -> response.setUpdatedAt((Instant) value)),
+    CATEGORIES("categories", null, null),
+    IS_IN_WATCHLIST("isInWatchlist", null, null);
+
+    private final String fieldName;
+    private final String path;
+    private final BiConsumer<VideoResponse, Object> setter;
+
+    VideoField(String fieldName, String path, BiConsumer<VideoResponse, Object> setter) {
+        this.fieldName = fieldName;
+        this.path = path;
+        this.setter = setter;
+    }
+
+    public String fieldName() {
+        return fieldName;
+    }
+
+    /**
+     * JPQL path of the column, or null for fields that are not a column of {@code videos}.
+     */
+    public String path() {
+        return path;
+    }
+
+    public String alias() {
+        return "f" + ordinal();
+    }
+
+    public boolean isColumn() {
+        return path != null;
+    }
+
+    public void apply(VideoResponse response, Tuple row) {
+        setter.accept(response, row.get(alias()));
+    }
+
+    /**
+     * Parses a comma separated field list; null or blank means the full response.
+     */
+    public static Set<VideoField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<VideoField> selected = EnumSet.noneOf(VideoField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.fieldName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldsException("Unknown field '" + trimmed + "', expected any of "
+                            + Arrays.stream(values()).map(VideoField::fieldName).collect(Collectors.joining(",")))));
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidFieldsException("No fields selected");
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,108 @@
+package com.movie.app.util;
+
+import com.movie.app.dto.response.PageResponse;
+import com.movie.app.dto.response.SparseVideoResponse;
+import com.movie.app.dto.response.VideoResponse;
+import com.movie.app.repository.UserRepository;
+import com.movie.app.repository.VideoProjectionRepository;
+import com.movie.app.repository.VideoRepository;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Builds video list pages for {@code ?fields=} requests from column projections instead of
+ * entities: one query for the rows, plus one for categories and one for watchlist flags when those
+ * fields are selected.
+ */
+@Component
+@RequiredArgsConstructor
+public class VideoProjections {
+
+    private final VideoRepository videoRepository;
+    private final UserRepository userRepository;
+
+    public PageResponse<VideoResponse> page(VideoProjectionRepository.Filter filter, Set<VideoField> fields,
+                                            int page, int size, boolean slice, LongSupplier total, String email) {
+        Pageable pageable = PaginationUtils.createPageRequest(page, size);
+        List<Tuple> rows = videoRepository.findVideoFields(fields, filter, pageable.getOffset(), size + 1);
+        boolean hasNext = rows.size() > size;
+        return toPageResponse(hasNext ? rows.subList(0, size) : rows, pageable, hasNext, fields, slice, total, email);
+    }
+
+    /**
+     * Page of a ranked search whose ids were already picked; rows come back in rank order.
+     */
+    public PageResponse<VideoResponse> rankedPage(List<Long> pageIds, boolean hasNext, Set<VideoField> fields,
+                                                  int page, int size, boolean slice, LongSupplier total, String email) {
+        List<Tuple> rows = pageIds.isEmpty() ? List.of() : videoRepository.findVideoFields(
+                fields, VideoProjectionRepository.Filter.ids(pageIds), 0, pageIds.size());
+        Map<Long, Tuple> rowsById = rows.stream()
+                .collect(Collectors.toMap(VideoProjectionRepository::idOf, Function.identity()));
+        List<Tuple> ranked = pageIds.stream().map(rowsById::get).filter(Objects::nonNull).toList();
+        return toPageResponse(ranked, PaginationUtils.createPageRequest(page, size), hasNext, fields, slice, total, email);
+    }
+
+    public PageResponse<VideoResponse> cursorPage(VideoProjectionRepository.Filter filter, Set<VideoField> fields,
+                                                  String cursor, int size, String email) {
+        List<Tuple> rows = videoRepository.findVideoFields(fields, filter.before(PageCursor.decode(cursor)), 0, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Tuple> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? VideoProjectionRepository.cursorOf(page.get(page.size() - 1)).encode() : null;
+        return new PageResponse<>(toResponses(page, fields, email), null, null, null, size, nextCursor, hasNext);
+    }
+
+    private PageResponse<VideoResponse> toPageResponse(List<Tuple> rows, Pageable pageable, boolean hasNext,
+                                                       Set<VideoField> fields, boolean slice, LongSupplier total, String email) {
+        Slice<Tuple> rowSlice = new SliceImpl<>(rows, pageable, hasNext);
+        List<VideoResponse> content = toResponses(rows, fields, email);
+        if (slice) {
+            return PaginationUtils.toSliceResponse(rowSlice, content);
+        }
+        return PaginationUtils.toPageResponse(PaginationUtils.withTotal(rowSlice, total), content);
+    }
+
+    private List<VideoResponse> toResponses(List<Tuple> rows, Set<VideoField> fields, String email) {
+        List<Long> ids = rows.stream().map(VideoProjectionRepository::idOf).toList();
+        Map<Long, List<String>> categories = new HashMap<>();
+        if (fields.contains(VideoField.CATEGORIES) && !ids.isEmpty()) {
+            for (Object[] row : videoRepository.findCategoriesByVideoIds(ids)) {
+                categories.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+        boolean markWatchlist = fields.contains(VideoField.IS_IN_WATCHLIST) && email != null;
+        Set<Long> watchlistIds = markWatchlist && !ids.isEmpty() ? userRepository.findWatchlistVideoIds(email, ids) : Set.of();
+
+        List<VideoResponse> responses = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long id = VideoProjectionRepository.idOf(row);
+            VideoResponse response = new SparseVideoResponse();
+            for (VideoField field : fields) {
+                if (field.isColumn()) {
+                    field.apply(response, row);
+                }
+            }
+            if (fields.contains(VideoField.CATEGORIES)) {
+                response.setCategories(categories.getOrDefault(id, List.of()));
+            }
+            if (markWatchlist) {
+                response.setIsInWatchlist(watchlistIds.contains(id));
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+}
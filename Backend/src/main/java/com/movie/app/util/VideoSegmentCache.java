@@ -0,0 +1,264 @@
+package com.movie.app.util;
+
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps fixed-size, chunk-aligned pieces of video files in direct buffers under a global byte budget.
+ * Eviction is frequency based: every chunk access is counted (also for chunks that are not cached),
+ * a new chunk only displaces the least frequently used one when it has been requested at least as
+ * often, and all counters are halved periodically so old popularity fades out. Chunks that would not
+ * be admitted are read straight from the file instead of being loaded into direct memory.
+ */
+public class VideoSegmentCache {
+
+    private final int chunkSize;
+    private final int maxChunks;
+    private final int sampleSize;
+    private final Map<String, ByteBuffer> chunks = new HashMap<>();
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private final TreeMap<Integer, Set<String>> cachedByFrequency = new TreeMap<>();
+    private int samples;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytesFromCache = new LongAdder();
+    private final LongAdder bytesFromDisk = new LongAdder();
+
+    public VideoSegmentCache(long budgetBytes, int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.maxChunks = (int) Math.max(1, budgetBytes / chunkSize);
+        this.sampleSize = maxChunks * 10;
+    }
+
+    public Resource createRangeResource(MediaFile mediaFile, long rangeStart, long rangeLength) {
+        return new InputStreamResource(new RangeStream(mediaFile, rangeStart, rangeStart + rangeLength)) {
+            @Override
+            public long contentLength() {
+                return rangeLength;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached chunk, or loads it when it would be admitted. A chunk that would be rejected
+     * is not loaded at all and comes back with a null buffer, so the caller reads it from the file.
+     */
+    private Chunk chunk(MediaFile mediaFile, long chunkIndex, RangeStream source) throws IOException {
+        String key = mediaFile.etag() + ":" + chunkIndex;
+        ByteBuffer cached;
+        boolean admitted;
+        synchronized (this) {
+            recordAccess(key);
+            cached = chunks.get(key);
+            admitted = cached == null && admits(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return new Chunk(cached.asReadOnlyBuffer(), true);
+        }
+
+        misses.increment();
+        if (!admitted) {
+            return new Chunk(null, false);
+        }
+        ByteBuffer loaded = load(mediaFile, chunkIndex, source.channel());
+        offer(key, loaded);
+        return new Chunk(loaded.asReadOnlyBuffer(), false);
+    }
+
+    private ByteBuffer load(MediaFile mediaFile, long chunkIndex, FileChannel channel) throws IOException {
+        long chunkStart = chunkIndex * chunkSize;
+        int length = (int) Math.min(chunkSize, mediaFile.size() - chunkStart);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        while (buffer.hasRemaining() && channel.read(buffer, chunkStart + buffer.position()) != -1) {
+            // keep reading until the chunk is complete
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private boolean admits(String key) {
+        return chunks.size() < maxChunks || frequencies.getOrDefault(key, 0) >= cachedByFrequency.firstKey();
+    }
+
+    private synchronized void offer(String key, ByteBuffer buffer) {
+        if (chunks.containsKey(key)) {
+            return;
+        }
+        if (chunks.size() >= maxChunks) {
+            // Frequencies may have moved since the admission check while the chunk was loading
+            if (!admits(key)) {
+                return;
+            }
+            Map.Entry<Integer, Set<String>> leastFrequent = cachedByFrequency.firstEntry();
+            Iterator<String> candidates = leastFrequent.getValue().iterator();
+            String victim = candidates.next();
+            candidates.remove();
+            if (leastFrequent.getValue().isEmpty()) {
+                cachedByFrequency.remove(leastFrequent.getKey());
+            }
+            chunks.remove(victim);
+            evictions.increment();
+        }
+        chunks.put(key, buffer);
+        bucket(frequencies.getOrDefault(key, 0)).add(key);
+    }
+
+    private void recordAccess(String key) {
+        int frequency = frequencies.merge(key, 1, Integer::sum);
+        if (chunks.containsKey(key)) {
+            Set<String> previous = cachedByFrequency.get(frequency - 1);
+            previous.remove(key);
+            if (previous.isEmpty()) {
+                cachedByFrequency.remove(frequency - 1);
+            }
+            bucket(frequency).add(key);
+        }
+        if (++samples >= sampleSize) {
+            samples = 0;
+            frequencies.replaceAll((chunkKey, count) -> count / 2);
+            frequencies.values().removeIf(count -> count == 0);
+            // Rebuilding once per sample period keeps the cost amortised to O(1) per access
+            cachedByFrequency.clear();
+            chunks.keySet().forEach(chunkKey -> bucket(frequencies.getOrDefault(chunkKey, 0)).add(chunkKey));
+        }
+    }
+
+    private Set<String> bucket(int frequency) {
+        return cachedByFrequency.computeIfAbsent(frequency, count -> new LinkedHashSet<>());
+    }
+
+    public synchronized long sizeInBytes() {
+        return chunks.values().stream().mapToLong(ByteBuffer::capacity).sum();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long bytesFromCache() {
+        return bytesFromCache.sum();
+    }
+
+    public long bytesFromDisk() {
+        return bytesFromDisk.sum();
+    }
+
+    public double hitRatio() {
+        long total = hitCount() + missCount();
+        return total == 0 ? 0 : (double) hitCount() / total;
+    }
+
+    private record Chunk(ByteBuffer buffer, boolean cached) {
+    }
+
+    /**
+     * Streams a byte range chunk by chunk. Cached chunks are copied from their buffers; everything else
+     * is read from one file channel that is opened on first use and shared by all chunks of the range.
+     */
+    private final class RangeStream extends InputStream {
+
+        private final MediaFile mediaFile;
+        private final long rangeEnd;
+        private long position;
+        private ByteBuffer slice;
+        private long diskEnd;
+        private FileChannel channel;
+
+        private RangeStream(MediaFile mediaFile, long rangeStart, long rangeEnd) {
+            this.mediaFile = mediaFile;
+            this.position = rangeStart;
+            this.diskEnd = rangeStart;
+            this.rangeEnd = rangeEnd;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if ((slice == null || !slice.hasRemaining()) && position >= diskEnd) {
+                if (position >= rangeEnd) {
+                    return -1;
+                }
+                nextChunk();
+            }
+            int read;
+            if (slice != null && slice.hasRemaining()) {
+                read = Math.min(length, slice.remaining());
+                slice.get(target, offset, read);
+            } else {
+                read = channel().read(ByteBuffer.wrap(target, offset, (int) Math.min(length, diskEnd - position)), position);
+                if (read == -1) {
+                    throw new EOFException("Unexpected end of " + mediaFile.path());
+                }
+            }
+            position += read;
+            return read;
+        }
+
+        private void nextChunk() throws IOException {
+            long chunkIndex = position / chunkSize;
+            long chunkStart = chunkIndex * chunkSize;
+            long sliceEnd = Math.min(chunkStart + chunkSize, rangeEnd);
+            Chunk chunk = chunk(mediaFile, chunkIndex, this);
+            (chunk.cached() ? bytesFromCache : bytesFromDisk).add(sliceEnd - position);
+            if (chunk.buffer() == null) {
+                slice = null;
+                diskEnd = sliceEnd;
+                return;
+            }
+            int from = (int) (position - chunkStart);
+            int to = (int) Math.min(chunk.buffer().limit(), sliceEnd - chunkStart);
+            if (from >= to) {
+                throw new EOFException("Unexpected end of " + mediaFile.path());
+            }
+            slice = chunk.buffer().position(from).limit(to);
+        }
+
+        private FileChannel channel() throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(mediaFile.path(), StandardOpenOption.READ);
+            }
+            return channel;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- Runs on every start after Hibernate's schema update, so every statement must be idempotent.
+
+-- search_categories was varchar(1000), too short for long category lists. The generated column
+-- depends on it, so drop search_vector before widening; it is re-added below
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''videos''
+                 AND column_name = ''search_categories'' AND data_type <> ''text'') THEN
+        ALTER TABLE videos DROP COLUMN IF EXISTS search_vector;
+        ALTER TABLE videos ALTER COLUMN search_categories TYPE text;
+    END IF;
+END';
+
+-- Weighted full-text document: title (A) > categories (B) > description (C)
+ALTER TABLE videos ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(search_categories, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_videos_search_vector ON videos USING GIN (search_vector);
+
+-- Videos saved before search_categories existed
+UPDATE videos v SET search_categories = c.categories
+FROM (SELECT video_id, string_agg(category, ' ') AS categories FROM video_categories GROUP BY video_id) c
+WHERE c.video_id = v.id AND v.search_categories IS NULL;
+
+-- Keyset pagination: WHERE (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_videos_published_created_id ON videos (published, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_videos_created_id ON videos (created_at DESC, id DESC);
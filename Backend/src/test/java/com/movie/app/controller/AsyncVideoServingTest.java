@@ -0,0 +1,145 @@
+package com.movie.app.controller;
+
+import com.movie.app.repository.MediaJobRepository;
+import com.movie.app.repository.VideoRepository;
+import com.movie.app.service.impl.FileUploadServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@code GET /api/files/video/{uuid}} on a real Tomcat with the default async-video setting, so the
+ * bodies are written by {@link com.movie.app.util.ResourceWriteListener}. Stream mode keeps full and
+ * single-range responses from being handed to sendfile instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "file.serve.video-mode=stream",
+        "file.gc.enabled=false"
+})
+class AsyncVideoServingTest {
+
+    private static final String UUID = "0c6b8e1a-7d42-4b8e-9f35-2a61c0d4e5f7";
+    private static final Path STORAGE;
+    // Large enough that the socket pushes back and the listener has to wait for onWritePossible
+    private static final byte[] CONTENT = new byte[3 * 1024 * 1024 + 17];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) (i % 251);
+        }
+        try {
+            STORAGE = Files.createTempDirectory("async-video-serving");
+            Files.createDirectories(STORAGE.resolve("videos"));
+            Files.write(STORAGE.resolve("videos").resolve(UUID + ".mp4"), CONTENT);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload.video-dir", () -> STORAGE.resolve("videos").toString());
+        registry.add("file.upload.image-dir", () -> STORAGE.resolve("images").toString());
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import({FileUploadContoller.class, FileUploadServiceImpl.class})
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean
+    private MediaJobRepository mediaJobRepository;
+
+    @MockitoBean
+    private VideoRepository videoRepository;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void servesTheWholeFile() throws Exception {
+        HttpResponse<byte[]> response = get(null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(String.valueOf(CONTENT.length), response.headers().firstValue(HttpHeaders.CONTENT_LENGTH).orElseThrow());
+        assertArrayEquals(CONTENT, response.body());
+    }
+
+    @Test
+    void servesASingleRange() throws Exception {
+        HttpResponse<byte[]> response = get("bytes=100-2000099");
+
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes 100-2000099/" + CONTENT.length,
+                response.headers().firstValue(HttpHeaders.CONTENT_RANGE).orElseThrow());
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, 2000100), response.body());
+    }
+
+    @Test
+    void servesMultipleRangesAsMultipartByteranges() throws Exception {
+        HttpResponse<byte[]> response = get("bytes=0-9,3000000-3000009");
+
+        assertEquals(206, response.statusCode());
+        assertTrue(response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElseThrow()
+                .startsWith("multipart/byteranges"));
+        assertEquals(response.headers().firstValue(HttpHeaders.CONTENT_LENGTH).orElseThrow(),
+                String.valueOf(response.body().length));
+        String body = new String(response.body(), StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("bytes 0-9/" + CONTENT.length));
+        assertTrue(body.contains(new String(CONTENT, 0, 10, StandardCharsets.ISO_8859_1)));
+        assertTrue(body.contains("bytes 3000000-3000009/" + CONTENT.length));
+        assertTrue(body.contains(new String(CONTENT, 3000000, 10, StandardCharsets.ISO_8859_1)));
+    }
+
+    private HttpResponse<byte[]> get(String range) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/files/video/" + UUID));
+        if (range != null) {
+            request.header(HttpHeaders.RANGE, range);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,149 @@
+package com.movie.app.controller;
+
+import com.movie.app.repository.MediaJobRepository;
+import com.movie.app.repository.VideoRepository;
+import com.movie.app.service.FileUploadService;
+import com.movie.app.service.impl.FileUploadServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Range handling of {@code GET /api/files/video/{uuid}} in stream mode, where Spring MVC writes the
+ * body: requests whose Range header is ignored must get the whole file with a 200.
+ */
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "file.serve.video-mode=stream",
+        "file.serve.read-ahead.enabled=false",
+        "file.gc.enabled=false"
+})
+class VideoRangeServingTest {
+
+    private static final String UUID = "5b0d7c52-2f7e-4f0c-9d1e-3c9a3f1b2a10";
+    private static final Path STORAGE;
+    private static final byte[] CONTENT = new byte[1000];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+        try {
+            STORAGE = Files.createTempDirectory("video-range-serving");
+            Files.createDirectories(STORAGE.resolve("videos"));
+            Files.write(STORAGE.resolve("videos").resolve(UUID + ".mp4"), CONTENT);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload.video-dir", () -> STORAGE.resolve("videos").toString());
+        registry.add("file.upload.image-dir", () -> STORAGE.resolve("images").toString());
+    }
+
+    @Configuration
+    @Import(FileUploadServiceImpl.class)
+    static class Config {
+
+        @Bean
+        static ConversionService conversionService() {
+            return new DefaultFormattingConversionService();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean
+    private MediaJobRepository mediaJobRepository;
+
+    @MockitoBean
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileUploadContoller(fileUploadService)).build();
+    }
+
+    @Test
+    void matchingIfRangeServesThePartialContent() throws Exception {
+        String eTag = currentETag();
+
+        mockMvc.perform(get("/api/files/video/" + UUID)
+                        .header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, eTag))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/1000"))
+                .andExpect(content().bytes(Arrays.copyOf(CONTENT, 10)));
+    }
+
+    @Test
+    void staleIfRangeServesTheWholeFile() throws Exception {
+        mockMvc.perform(get("/api/files/video/" + UUID)
+                        .header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, "\"stale-validator\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void malformedRangeServesTheWholeFile() throws Exception {
+        for (String range : new String[]{"bytes=abc", "bytes=--5", "bytes=5-1"}) {
+            mockMvc.perform(get("/api/files/video/" + UUID).header(HttpHeaders.RANGE, range))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                    .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                    .andExpect(content().bytes(CONTENT));
+        }
+    }
+
+    @Test
+    void unsatisfiableRangeIsRejected() throws Exception {
+        mockMvc.perform(get("/api/files/video/" + UUID).header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+    }
+
+    private String currentETag() throws Exception {
+        return mockMvc.perform(get("/api/files/video/" + UUID))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
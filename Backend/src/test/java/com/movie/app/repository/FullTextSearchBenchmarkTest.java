@@ -0,0 +1,103 @@
+package com.movie.app.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the LIKE search with the ranked full-text search on a catalog of a million rows. The
+ * table mirrors the search columns of {@code videos} and is dropped afterwards. Needs a PostgreSQL
+ * server; run with {@code mvn test -Dtest=FullTextSearchBenchmarkTest -Dbenchmark=true
+ * -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5433/movie_app}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FullTextSearchBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int ROUNDS = 20;
+    private static final int PAGE_SIZE = 20;
+    private static final String TABLE = "videos_search_benchmark";
+    private static final List<String> QUERIES = List.of("matrix", "space pirates", "\"haunted house\"", "heist -comedy");
+
+    @Test
+    void compareLikeAndFullTextSearch() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5433/movie_app"),
+                System.getProperty("benchmark.jdbc-user", "postgres"),
+                System.getProperty("benchmark.jdbc-password", "postgres"))) {
+            createCatalog(connection);
+            try {
+                for (String query : QUERIES) {
+                    double like = medianMillis(connection, "SELECT id FROM " + TABLE + " WHERE published = true AND (" +
+                            "LOWER(title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(description) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+                            "ORDER BY created_at DESC LIMIT " + PAGE_SIZE, query, 2);
+                    double fullText = medianMillis(connection, "SELECT id FROM " + TABLE + ", websearch_to_tsquery('english', ?) query " +
+                            "WHERE published = true AND search_vector @@ query " +
+                            "ORDER BY ts_rank(search_vector, query) DESC, created_at DESC LIMIT " + PAGE_SIZE, query, 1);
+                    System.out.printf("query=%-18s like=%.1f ms fulltext=%.1f ms%n", query, like, fullText);
+                }
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                }
+            }
+        }
+    }
+
+    private void createCatalog(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "id bigserial PRIMARY KEY, title varchar(255) NOT NULL, description varchar(4000), " +
+                    "search_categories varchar(1000), published boolean NOT NULL, created_at timestamptz NOT NULL)");
+            // Titles and descriptions drawn from a small vocabulary so terms have realistic selectivity
+            statement.execute("INSERT INTO " + TABLE + " (title, description, search_categories, published, created_at) " +
+                    "SELECT " + words(3) + ", repeat(" + words(40) + " || ' ', 12), " +
+                    "(ARRAY['action','comedy','drama','horror','sci-fi','thriller'])[1 + (random() * 5)::int], " +
+                    "random() < 0.9, now() - (g || ' minutes')::interval " +
+                    "FROM generate_series(1, " + ROWS + ") g");
+            statement.execute("ALTER TABLE " + TABLE + " ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (" +
+                    "setweight(to_tsvector('english', coalesce(title, '')), 'A') || " +
+                    "setweight(to_tsvector('english', coalesce(search_categories, '')), 'B') || " +
+                    "setweight(to_tsvector('english', coalesce(description, '')), 'C')) STORED");
+            statement.execute("CREATE INDEX ON " + TABLE + " USING GIN (search_vector)");
+            statement.execute("ANALYZE " + TABLE);
+        }
+    }
+
+    private static String words(int count) {
+        String vocabulary = "ARRAY['matrix','space','pirates','haunted','house','heist','comedy','night','city','love'," +
+                "'war','detective','island','storm','robot','dragon','secret','agent','summer','winter']";
+        String[] picks = new String[count];
+        Arrays.setAll(picks, i -> "(" + vocabulary + ")[1 + (random() * 19)::int]");
+        return "concat_ws(' ', " + String.join(", ", picks) + ")";
+    }
+
+    private double medianMillis(Connection connection, String sql, String query, int parameters) throws SQLException {
+        double[] timings = new double[ROUNDS];
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= parameters; i++) {
+                statement.setString(i, query);
+            }
+            for (int round = 0; round < ROUNDS; round++) {
+                long started = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getLong(1);
+                    }
+                }
+                timings[round] = (System.nanoTime() - started) / 1e6;
+            }
+        }
+        Arrays.sort(timings);
+        return timings[ROUNDS / 2];
+    }
+}
@@ -0,0 +1,143 @@
+package com.movie.app.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a full video list page (every column plus categories, as entities are loaded) with the
+ * card projection behind {@code ?fields=id,title,poster,year,rating}: median DB time per page and
+ * JSON payload size. Tables mirror {@code videos} and {@code video_categories} and are dropped
+ * afterwards. Needs a PostgreSQL server; run with {@code mvn test -Dtest=SparseFieldsBenchmarkTest
+ * -Dbenchmark=true -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5433/movie_app}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SparseFieldsBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+    private static final int ROUNDS = 50;
+    private static final int PAGE_SIZE = 50;
+    private static final String TABLE = "videos_fields_benchmark";
+    private static final String CATEGORIES = "video_categories_fields_benchmark";
+    private static final String ORDER = " ORDER BY created_at DESC, id DESC LIMIT " + PAGE_SIZE + " OFFSET ?";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareFullRowsAndCardProjection() throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5433/movie_app"),
+                System.getProperty("benchmark.jdbc-user", "postgres"),
+                System.getProperty("benchmark.jdbc-password", "postgres"))) {
+            createCatalog(connection);
+            try {
+                Result full = measure(connection, "SELECT * FROM " + TABLE + " WHERE published = true" + ORDER, true);
+                Result cards = measure(connection, "SELECT id, created_at, title, poster, year, rating FROM " + TABLE +
+                        " WHERE published = true" + ORDER, false);
+                System.out.printf("full:  db=%.2f ms payload=%d bytes/page%n", full.millis(), full.bytes());
+                System.out.printf("cards: db=%.2f ms payload=%d bytes/page (%.0f%% smaller, %.1fx faster)%n",
+                        cards.millis(), cards.bytes(), 100.0 * (full.bytes() - cards.bytes()) / full.bytes(),
+                        full.millis() / cards.millis());
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS " + CATEGORIES);
+                    statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                }
+            }
+        }
+    }
+
+    private void createCatalog(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + CATEGORIES);
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (" +
+                    "id bigserial PRIMARY KEY, title varchar(255) NOT NULL, description varchar(4000), year int, " +
+                    "rating varchar(255), duration int, src varchar(255), poster varchar(255), " +
+                    "poster_placeholder varchar(64), search_categories varchar(1000), published boolean NOT NULL, " +
+                    "created_at timestamptz NOT NULL, updated_at timestamptz NOT NULL)");
+            statement.execute("INSERT INTO " + TABLE + " (title, description, year, rating, duration, src, poster, " +
+                    "poster_placeholder, search_categories, published, created_at, updated_at) " +
+                    "SELECT 'Title ' || g, repeat(md5(g::text) || ' ', 60), 1950 + g % 75, 'PG-13', 5400, " +
+                    "gen_random_uuid()::text, gen_random_uuid()::text, 'LEHV6nWB2yk8pyo0adR*.7kCMdnj', 'drama thriller', " +
+                    "random() < 0.9, now() - (g || ' minutes')::interval, now() FROM generate_series(1, " + ROWS + ") g");
+            statement.execute("CREATE TABLE " + CATEGORIES + " (video_id bigint NOT NULL, category varchar(255))");
+            statement.execute("INSERT INTO " + CATEGORIES + " SELECT id, c FROM " + TABLE +
+                    ", unnest(ARRAY['drama', 'thriller']) c");
+            statement.execute("CREATE INDEX ON " + CATEGORIES + " (video_id)");
+            statement.execute("CREATE INDEX ON " + TABLE + " (published, created_at DESC, id DESC)");
+            statement.execute("ANALYZE " + TABLE);
+            statement.execute("ANALYZE " + CATEGORIES);
+        }
+    }
+
+    private Result measure(Connection connection, String sql, boolean withCategories) throws Exception {
+        double[] timings = new double[ROUNDS];
+        long bytes = 0;
+        try (PreparedStatement page = connection.prepareStatement(sql);
+             PreparedStatement categories = connection.prepareStatement(
+                     "SELECT video_id, category FROM " + CATEGORIES + " WHERE video_id = ANY(?)")) {
+            for (int round = 0; round < ROUNDS; round++) {
+                page.setInt(1, round * PAGE_SIZE);
+                long started = System.nanoTime();
+                List<Map<String, Object>> rows = readRows(page);
+                if (withCategories) {
+                    attachCategories(connection, categories, rows);
+                }
+                timings[round] = (System.nanoTime() - started) / 1e6;
+                bytes += objectMapper.writeValueAsBytes(rows).length;
+            }
+        }
+        Arrays.sort(timings);
+        return new Result(timings[ROUNDS / 2], bytes / ROUNDS);
+    }
+
+    private static List<Map<String, Object>> readRows(PreparedStatement statement) throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            while (resultSet.next()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    Object value = resultSet.getObject(column);
+                    row.put(metaData.getColumnLabel(column), value instanceof Timestamp timestamp
+                            ? timestamp.toInstant().toString() : value);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void attachCategories(Connection connection, PreparedStatement statement,
+                                         List<Map<String, Object>> rows) throws SQLException {
+        Map<Long, List<String>> categories = new HashMap<>();
+        Array ids = connection.createArrayOf("bigint", rows.stream().map(row -> row.get("id")).toArray());
+        statement.setArray(1, ids);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                categories.computeIfAbsent(resultSet.getLong(1), id -> new ArrayList<>()).add(resultSet.getString(2));
+            }
+        }
+        rows.forEach(row -> row.put("categories", categories.getOrDefault((Long) row.get("id"), List.of())));
+    }
+
+    private record Result(double millis, long bytes) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.movie.app.repository;
+
+import com.movie.app.entity.Video;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Counts the JDBC statements behind a list page: the page query plus one batched categories query,
+ * the same for a small and a large page. Runs on an in-memory H2 database in PostgreSQL mode
+ * ({@code year} is a keyword there otherwise); schema.sql holds PostgreSQL-only full-text DDL, so it
+ * is skipped here.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statement-count;MODE=PostgreSQL;NON_KEYWORDS=YEAR",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class VideoRepositoryStatementCountTest {
+
+    private static final int SMALL_PAGE = 5;
+    private static final int LARGE_PAGE = 50;
+
+    @Autowired
+    private VideoRepository videoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createCatalog() {
+        for (int i = 0; i < LARGE_PAGE; i++) {
+            Video video = new Video();
+            video.setTitle("Statement count " + i);
+            video.setPublished(true);
+            video.setCategories(List.of("drama", "category " + i));
+            entityManager.persist(video);
+        }
+        entityManager.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void publishedPageLoadsCategoriesInOneQuery() {
+        assertStatementCountIndependentOfPageSize(
+                size -> videoRepository.findPublishVideoPageable(PageRequest.of(0, size)).getContent());
+    }
+
+    @Test
+    void searchPageLoadsCategoriesInOneQuery() {
+        assertStatementCountIndependentOfPageSize(
+                size -> videoRepository.searchVideos("statement count", PageRequest.of(0, size)).getContent());
+    }
+
+    @Test
+    void seekPageLoadsCategoriesInOneQuery() {
+        assertStatementCountIndependentOfPageSize(
+                size -> videoRepository.findPublishedVideosBefore(Instant.now().plusSeconds(60), Long.MAX_VALUE, size));
+    }
+
+    private void assertStatementCountIndependentOfPageSize(IntFunction<List<Video>> loadPage) {
+        long small = countStatements(loadPage, SMALL_PAGE);
+        long large = countStatements(loadPage, LARGE_PAGE);
+
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    private long countStatements(IntFunction<List<Video>> loadPage, int size) {
+        entityManager.clear();
+        statistics.clear();
+        List<Video> videos = loadPage.apply(size);
+
+        assertEquals(size, videos.size());
+        videos.forEach(video -> assertFalse(video.getCategories().isEmpty()));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,209 @@
+package com.movie.app.util;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts an embedded Tomcat with a small worker pool, opens slow video viewers against it and
+ * measures the latency of a tiny API endpoint while they stream. "blocking" writes the video on the
+ * Tomcat worker, "virtual" does the same blocking write from a virtual thread after starting async,
+ * and "listener" uses {@link ResourceWriteListener} with a small reader pool like the video endpoint does.
+ * Run with {@code mvn test -Dtest=AsyncStreamingBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AsyncStreamingBenchmarkTest {
+
+    private static final int WORKERS = 20;
+    private static final int READERS = 8;
+    private static final int VIDEO_SIZE = 1024 * 1024;
+    private static final int SOCKET_BUFFER = 64 * 1024;
+    private static final long VIEWER_BYTES_PER_SECOND = 256L * 1024;
+    private static final int API_REQUESTS = 200;
+    private static final long API_TIMEOUT_MILLIS = 5000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareBlockingAndAsyncVideoStreaming() throws Exception {
+        Path video = tempDir.resolve("video.mp4");
+        Files.write(video, new byte[VIDEO_SIZE]);
+
+        for (int viewers : new int[]{WORKERS / 2, WORKERS, WORKERS * 5, WORKERS * 25}) {
+            for (String mode : new String[]{"blocking", "virtual", "listener"}) {
+                run(video, viewers, mode);
+            }
+        }
+    }
+
+    private void run(Path video, int viewers, String mode) throws Exception {
+        Tomcat tomcat = startTomcat(video, mode);
+        int port = tomcat.getConnector().getLocalPort();
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Boolean>> viewerResults = new ArrayList<>();
+            for (int viewer = 0; viewer < viewers; viewer++) {
+                viewerResults.add(clients.submit(() -> watch(port)));
+            }
+            Thread.sleep(300);
+
+            List<Long> apiLatencies = Collections.synchronizedList(new ArrayList<>());
+            List<Future<?>> apiCalls = new ArrayList<>();
+            for (int call = 0; call < API_REQUESTS; call++) {
+                apiCalls.add(clients.submit(() -> apiLatencies.add(callApi(port))));
+                Thread.sleep(5);
+            }
+            for (Future<?> apiCall : apiCalls) {
+                apiCall.get();
+            }
+            int completedViewers = 0;
+            for (Future<Boolean> result : viewerResults) {
+                completedViewers += result.get() ? 1 : 0;
+            }
+            List<Long> sorted = apiLatencies.stream().sorted().toList();
+            long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+            long timeouts = sorted.stream().filter(millis -> millis >= API_TIMEOUT_MILLIS).count();
+            System.out.printf("%-9s viewers=%4d completed=%4d api-p50=%5d ms api-p99=%5d ms api-timeouts=%d%n",
+                    mode, viewers, completedViewers,
+                    sorted.get(sorted.size() / 2), p99, timeouts);
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private Tomcat startTomcat(Path video, String mode) throws Exception {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory(tempDir, "tomcat").toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        connector.setProperty("maxThreads", String.valueOf(WORKERS));
+        connector.setProperty("minSpareThreads", String.valueOf(WORKERS));
+        connector.setProperty("acceptCount", "1000");
+        connector.setProperty("maxConnections", "10000");
+        connector.setProperty("socket.txBufSize", String.valueOf(SOCKET_BUFFER));
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        ExecutorService streamExecutor = mode.equals("listener")
+                ? Executors.newFixedThreadPool(READERS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+        Tomcat.addServlet(context, "video", new VideoServlet(video, mode, streamExecutor)).setAsyncSupported(true);
+        context.addServletMappingDecoded("/video", "video");
+        Tomcat.addServlet(context, "api", new ApiServlet());
+        context.addServletMappingDecoded("/api", "api");
+        tomcat.start();
+        return tomcat;
+    }
+
+    private boolean watch(int port) {
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(SOCKET_BUFFER);
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.setSoTimeout(60_000);
+            socket.getOutputStream().write("GET /video HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[16 * 1024];
+            long received = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received += read;
+                Thread.sleep(read * 1000L / VIEWER_BYTES_PER_SECOND);
+            }
+            return received >= VIDEO_SIZE;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private long callApi(int port) {
+        long started = System.nanoTime();
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout((int) API_TIMEOUT_MILLIS);
+            socket.getOutputStream().write("GET /api HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            socket.getInputStream().readAllBytes();
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        } catch (IOException e) {
+            return API_TIMEOUT_MILLIS;
+        }
+    }
+
+    private static class VideoServlet extends HttpServlet {
+        private final Path video;
+        private final String mode;
+        private final ExecutorService streamExecutor;
+
+        VideoServlet(Path video, String mode, ExecutorService streamExecutor) {
+            this.video = video;
+            this.mode = mode;
+            this.streamExecutor = streamExecutor;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setContentType("video/mp4");
+            response.setContentLengthLong(VIDEO_SIZE);
+            Resource resource = new FileSystemResource(video);
+            switch (mode) {
+                case "blocking" -> copy(resource, response.getOutputStream());
+                case "virtual" -> {
+                    AsyncContext asyncContext = request.startAsync();
+                    asyncContext.setTimeout(0);
+                    streamExecutor.execute(() -> {
+                        try {
+                            copy(resource, response.getOutputStream());
+                        } catch (IOException ignored) {
+                        } finally {
+                            asyncContext.complete();
+                        }
+                    });
+                }
+                default -> ResourceWriteListener.start(request, response, resource, 0, streamExecutor);
+            }
+        }
+
+        private static void copy(Resource resource, OutputStream out) throws IOException {
+            try (InputStream in = resource.getInputStream()) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    private static class ApiServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setContentType("application/json");
+            response.getWriter().write("{\"status\":\"ok\"}");
+        }
+    }
+}
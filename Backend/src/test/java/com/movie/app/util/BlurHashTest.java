@@ -0,0 +1,73 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class BlurHashTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void solidImageEncodesSizeFlagAndAverageColour() {
+        String hash = BlurHash.encode(solid(Color.RED, 8, 8), 4, 3);
+
+        // size flag, AC maximum, 4 DC characters, 2 characters per AC component
+        assertEquals(1 + 1 + 4 + 2 * 11, hash.length());
+        assertEquals('L', hash.charAt(0));
+        assertEquals(0xFF0000, decodeBase83(hash.substring(2, 6)));
+    }
+
+    @Test
+    void portraitPosterUsesMoreVerticalComponents() throws Exception {
+        BufferedImage poster = solid(Color.BLUE, 200, 300);
+        Graphics2D graphics = poster.createGraphics();
+        graphics.setColor(Color.YELLOW);
+        graphics.fillRect(0, 0, 200, 100);
+        graphics.dispose();
+        Path path = tempDir.resolve("poster.png");
+        ImageIO.write(poster, "png", path.toFile());
+
+        String hash = BlurHash.encode(path).orElseThrow();
+
+        assertEquals(1 + 1 + 4 + 2 * 11, hash.length());
+        assertEquals('T', hash.charAt(0));
+        assertNotEquals("fQ".repeat(11), hash.substring(6));
+    }
+
+    @Test
+    void unreadableImageHasNoPlaceholder() throws Exception {
+        Path path = Files.writeString(tempDir.resolve("poster.jpg"), "not an image");
+
+        assertEquals(Optional.empty(), BlurHash.encode(path));
+    }
+
+    private BufferedImage solid(Color color, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private int decodeBase83(String value) {
+        String alphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+        int result = 0;
+        for (char c : value.toCharArray()) {
+            result = result * 83 + alphabet.indexOf(c);
+        }
+        return result;
+    }
+}
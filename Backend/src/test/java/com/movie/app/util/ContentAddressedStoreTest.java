@@ -0,0 +1,44 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentAddressedStoreTest {
+
+    private static final String HASH = "ab12cd";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void duplicateContentIsLinkedToTheExistingBlob() throws Exception {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir);
+
+        boolean first = store.storeAndLink(Files.writeString(tempDir.resolve("a.part"), "same"), HASH, tempDir.resolve("a.mp4"));
+        boolean second = store.storeAndLink(Files.writeString(tempDir.resolve("b.part"), "same"), HASH, tempDir.resolve("b.mp4"));
+
+        assertFalse(first);
+        assertTrue(second);
+        assertFalse(Files.exists(tempDir.resolve("b.part")));
+        assertTrue(Files.isSameFile(tempDir.resolve("a.mp4"), tempDir.resolve("b.mp4")));
+        assertEquals(2, store.referenceCount(store.blobPath(HASH)));
+    }
+
+    @Test
+    void blobWithoutLinksIsReportedAsUnreferenced() throws Exception {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir);
+        store.storeAndLink(Files.writeString(tempDir.resolve("a.part"), "data"), HASH, tempDir.resolve("a.mp4"));
+        assertTrue(store.findUnreferencedBlobs().isEmpty());
+
+        Files.delete(tempDir.resolve("a.mp4"));
+
+        assertEquals(1, store.findUnreferencedBlobs().size());
+    }
+}
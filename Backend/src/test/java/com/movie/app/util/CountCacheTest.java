@@ -0,0 +1,60 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountCacheTest {
+
+    @Test
+    void totalsAreCachedPerNormalizedFilter() {
+        CountCache cache = new CountCache(60_000, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(7, cache.get(CountCache.key("videos:published", "The  Matrix "), () -> load(loads, 7)));
+        assertEquals(7, cache.get(CountCache.key("videos:published", "the matrix"), () -> load(loads, 8)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidationDropsOnlyTheNamespace() {
+        CountCache cache = new CountCache(60_000, 100);
+        cache.get(CountCache.key("videos:published", "matrix"), () -> 7);
+        cache.get(CountCache.key("watchlist:1", ""), () -> 3);
+        cache.get(CountCache.key("users", ""), () -> 2);
+
+        cache.invalidate("videos");
+        cache.invalidate("watchlist:1");
+
+        assertEquals(1, cache.size());
+        assertEquals(8, cache.get(CountCache.key("videos:published", "matrix"), () -> 8));
+    }
+
+    @Test
+    void countLoadedAcrossAnInvalidationIsNotStored() {
+        CountCache cache = new CountCache(60_000, 100);
+
+        cache.get(CountCache.key("videos", ""), () -> {
+            cache.invalidate("videos");
+            return 5;
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void fullCacheStillAnswersWithoutStoring() {
+        CountCache cache = new CountCache(60_000, 1);
+        cache.get(CountCache.key("users", "a"), () -> 1);
+
+        assertEquals(2, cache.get(CountCache.key("users", "b"), () -> 2));
+        assertEquals(1, cache.size());
+    }
+
+    private long load(AtomicInteger loads, long count) {
+        loads.incrementAndGet();
+        return count;
+    }
+}
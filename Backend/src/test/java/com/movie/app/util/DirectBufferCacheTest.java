@@ -0,0 +1,50 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DirectBufferCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedWhenOverBudget() {
+        DirectBufferCache cache = new DirectBufferCache(20, 10);
+        cache.put("a", ByteBuffer.allocateDirect(10));
+        cache.put("b", ByteBuffer.allocateDirect(10));
+        cache.get("a");
+
+        cache.put("c", ByteBuffer.allocateDirect(10));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(20, cache.sizeInBytes());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void entriesLargerThanTheEntryLimitAreNotCached() {
+        DirectBufferCache cache = new DirectBufferCache(100, 10);
+        cache.put("large", ByteBuffer.allocateDirect(11));
+
+        assertNull(cache.get("large"));
+        assertEquals(0, cache.sizeInBytes());
+    }
+
+    @Test
+    void readersGetIndependentViews() {
+        DirectBufferCache cache = new DirectBufferCache(100, 10);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+        buffer.put(new byte[]{1, 2, 3, 4}).flip();
+        cache.put("a", buffer);
+
+        ByteBuffer first = cache.get("a");
+        first.get(new byte[4]);
+
+        assertEquals(4, cache.get("a").remaining());
+        assertEquals(1.0, cache.hitRatio());
+    }
+}
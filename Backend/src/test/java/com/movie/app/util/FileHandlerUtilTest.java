@@ -0,0 +1,89 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileHandlerUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parseRangeHeaderHandlesOpenAndSuffixRanges() {
+        assertArrayEquals(new long[]{100, 999}, FileHandlerUtil.parseRangeHeader("bytes=100-", 1000).get(0));
+        assertArrayEquals(new long[]{500, 999}, FileHandlerUtil.parseRangeHeader("bytes=-500", 1000).get(0));
+        assertArrayEquals(new long[]{0, 999}, FileHandlerUtil.parseRangeHeader("bytes=-5000", 1000).get(0));
+        assertArrayEquals(new long[]{0, 999}, FileHandlerUtil.parseRangeHeader("bytes=0-5000", 1000).get(0));
+    }
+
+    @Test
+    void parseRangeHeaderBoundsOnlyOpenEndedRanges() {
+        assertArrayEquals(new long[]{100, 199}, FileHandlerUtil.parseRangeHeader("bytes=100-", 1000, 100).get(0));
+        assertArrayEquals(new long[]{950, 999}, FileHandlerUtil.parseRangeHeader("bytes=950-", 1000, 100).get(0));
+        assertArrayEquals(new long[]{100, 899}, FileHandlerUtil.parseRangeHeader("bytes=100-899", 1000, 100).get(0));
+        assertArrayEquals(new long[]{0, 999}, FileHandlerUtil.parseRangeHeader("bytes=-1000", 1000, 100).get(0));
+    }
+
+    @Test
+    void parseRangeHeaderMergesOverlappingAndAdjacentRanges() {
+        List<long[]> ranges = FileHandlerUtil.parseRangeHeader("bytes=900-999, 0-99, 50-199, 200-299", 1000);
+
+        assertEquals(2, ranges.size());
+        assertArrayEquals(new long[]{0, 299}, ranges.get(0));
+        assertArrayEquals(new long[]{900, 999}, ranges.get(1));
+    }
+
+    @Test
+    void parseRangeHeaderRejectsUnsatisfiableAndMalformedRanges() {
+        assertTrue(FileHandlerUtil.parseRangeHeader("bytes=2000-3000", 1000).isEmpty());
+        assertTrue(FileHandlerUtil.parseRangeHeader("bytes=2000-", 1000).isEmpty());
+        assertTrue(FileHandlerUtil.parseRangeHeader("bytes=2000-", 1000, 100).isEmpty());
+        assertNull(FileHandlerUtil.parseRangeHeader("bytes=500-100", 1000));
+        assertNull(FileHandlerUtil.parseRangeHeader("items=0-1", 1000));
+        assertNull(FileHandlerUtil.parseRangeHeader("bytes=abc", 1000));
+        assertNull(FileHandlerUtil.parseRangeHeader("bytes=--5", 1000));
+        assertNull(FileHandlerUtil.parseRangeHeader("bytes=+1-5", 1000));
+        assertNull(FileHandlerUtil.parseRangeHeader("bytes=-", 1000));
+    }
+
+    @Test
+    void multipartRangeResourceWritesEveryPart() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("video.mp4"), "0123456789");
+        List<long[]> ranges = List.of(new long[]{0, 1}, new long[]{8, 9});
+
+        Resource resource = FileHandlerUtil.createMultipartRangeResource(file, ranges, "video/mp4", 10, "sep");
+        String body;
+        try (InputStream in = resource.getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+
+        assertEquals(resource.contentLength(), body.length());
+        assertTrue(body.contains("Content-Range: bytes 0-1/10\r\n\r\n01\r\n--sep"));
+        assertTrue(body.contains("Content-Range: bytes 8-9/10\r\n\r\n89\r\n--sep--\r\n"));
+    }
+
+    @Test
+    void signatureChecksRecogniseCommonContainers() {
+        byte[] mp4 = {0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm'};
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n'};
+        byte[] text = "hello world!".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(FileHandlerUtil.hasVideoSignature(mp4));
+        assertTrue(FileHandlerUtil.hasImageSignature(png));
+        assertFalse(FileHandlerUtil.hasVideoSignature(text));
+        assertFalse(FileHandlerUtil.hasImageSignature(mp4));
+    }
+}
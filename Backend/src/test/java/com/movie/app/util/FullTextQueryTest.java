@@ -0,0 +1,23 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FullTextQueryTest {
+
+    @Test
+    void trailingWordBecomesAPrefixTerm() {
+        assertEquals(new FullTextQuery("", "incep:*"), FullTextQuery.parse("incep"));
+        assertEquals(new FullTextQuery("the", "matr:*"), FullTextQuery.parse("the matr"));
+        assertEquals(new FullTextQuery("\"haunted house\"", "vict:*"), FullTextQuery.parse("\"haunted house\" vict"));
+    }
+
+    @Test
+    void operatorsAndPhrasesAreLeftToWebsearch() {
+        assertEquals(new FullTextQuery("heist -comedy", ""), FullTextQuery.parse("heist -comedy"));
+        assertEquals(new FullTextQuery("\"haunted hou", ""), FullTextQuery.parse("\"haunted hou"));
+        assertEquals(new FullTextQuery("matrix or", ""), FullTextQuery.parse("matrix or"));
+        assertEquals(new FullTextQuery("matrix's", ""), FullTextQuery.parse("matrix's"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.movie.app.util;
+
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void requestedWidthIsSnappedAndVariantIsReused() throws Exception {
+        MediaFile original = poster(800, 1200);
+        ImageVariantStore store = new ImageVariantStore(tempDir, List.of(160, 320, 640));
+
+        MediaFile variant = store.findOrCreate(original, 200, null).orElseThrow();
+        BufferedImage image = ImageIO.read(variant.path().toFile());
+
+        assertEquals(320, image.getWidth());
+        assertEquals(480, image.getHeight());
+        assertEquals(variant.path(), store.findOrCreate(original, 300, null).orElseThrow().path());
+    }
+
+    @Test
+    void heightIsConvertedUsingTheOriginalAspectRatio() throws Exception {
+        MediaFile original = poster(800, 1200);
+        ImageVariantStore store = new ImageVariantStore(tempDir, List.of(160, 320, 640));
+
+        MediaFile variant = store.findOrCreate(original, null, 240).orElseThrow();
+
+        assertEquals(160, ImageIO.read(variant.path().toFile()).getWidth());
+    }
+
+    @Test
+    void originalIsServedWhenItIsAlreadySmallEnough() throws Exception {
+        MediaFile original = poster(100, 150);
+        ImageVariantStore store = new ImageVariantStore(tempDir, List.of(160, 320));
+
+        assertTrue(store.findOrCreate(original, 160, null).isEmpty());
+        assertTrue(store.findOrCreate(original, null, null).isEmpty());
+    }
+
+    @Test
+    void deletingVariantsRemovesEveryWidthOfTheOriginal() throws Exception {
+        MediaFile original = poster(800, 1200);
+        ImageVariantStore store = new ImageVariantStore(tempDir, List.of(160, 320, 640));
+        MediaFile small = store.findOrCreate(original, 160, null).orElseThrow();
+        MediaFile large = store.findOrCreate(original, 640, null).orElseThrow();
+
+        long freed = store.deleteVariants(original.uuid());
+
+        assertEquals(small.size() + large.size(), freed);
+        assertFalse(Files.exists(small.path()));
+        assertFalse(Files.exists(large.path()));
+        assertEquals(0, store.deleteVariants(original.uuid()));
+    }
+
+    @Test
+    void posterThatCannotBeDecodedIsNotRetried() throws Exception {
+        MediaFile original = poster(800, 1200);
+        byte[] jpeg = Files.readAllBytes(original.path());
+        // Turn the baseline frame marker (SOF0) into a lossless one (SOF3), which ImageIO does not support
+        for (int i = 0; i < jpeg.length - 1; i++) {
+            if (jpeg[i] == (byte) 0xFF && jpeg[i + 1] == (byte) 0xC0) {
+                jpeg[i + 1] = (byte) 0xC3;
+                break;
+            }
+        }
+        Files.write(original.path(), jpeg);
+        ImageVariantStore store = new ImageVariantStore(tempDir, List.of(160, 320));
+
+        assertThrows(IOException.class, () -> store.findOrCreate(original, 160, null));
+        assertTrue(store.findOrCreate(original, 160, null).isEmpty());
+        assertTrue(store.findOrCreate(original, 320, null).isEmpty());
+    }
+
+    private MediaFile poster(int width, int height) throws Exception {
+        Path path = tempDir.resolve("poster.jpg");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", path.toFile());
+        MediaFileIndex index = new MediaFileIndex(tempDir, FileHandlerUtil::detectImageContentType);
+        return index.register(path);
+    }
+}
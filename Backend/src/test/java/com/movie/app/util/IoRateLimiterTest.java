@@ -0,0 +1,42 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IoRateLimiterTest {
+
+    @Test
+    void operationsArePacedToTheOperationBudget() throws Exception {
+        IoRateLimiter limiter = new IoRateLimiter(0, 100);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(1);
+        }
+
+        assertTrue(System.nanoTime() - started >= 95_000_000L);
+    }
+
+    @Test
+    void bytesArePacedToTheByteBudget() throws Exception {
+        IoRateLimiter limiter = new IoRateLimiter(1_000_000, 0);
+
+        long started = System.nanoTime();
+        limiter.acquire(100_000);
+
+        assertTrue(System.nanoTime() - started >= 95_000_000L);
+    }
+
+    @Test
+    void disabledBudgetsDoNotWait() throws Exception {
+        IoRateLimiter limiter = new IoRateLimiter(0, 0);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire(Long.MAX_VALUE / 2000);
+        }
+
+        assertTrue(System.nanoTime() - started < 50_000_000L);
+    }
+}
@@ -0,0 +1,59 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaFileIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rebuildIndexesFilesByExactUuid() throws Exception {
+        Files.write(tempDir.resolve("abc.mp4"), new byte[10]);
+        Files.write(tempDir.resolve("abcdef.webm"), new byte[20]);
+
+        MediaFileIndex index = new MediaFileIndex(tempDir, FileHandlerUtil::detectVideoContentType);
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertEquals(10, index.find("abc").orElseThrow().size());
+        assertEquals("video/webm", index.find("abcdef").orElseThrow().contentType());
+        assertTrue(index.find("ab").isEmpty());
+    }
+
+    @Test
+    void registerMakesNewFileVisible() throws Exception {
+        MediaFileIndex index = new MediaFileIndex(tempDir, FileHandlerUtil::detectImageContentType);
+        index.rebuild();
+
+        Path poster = Files.write(tempDir.resolve("poster.png"), new byte[5]);
+        index.register(poster);
+
+        assertEquals("image/png", index.find("poster").orElseThrow().contentType());
+    }
+
+    @Test
+    void rebuildFindsFlatAndShardedFilesAndPrefersTheShardedCopy() throws Exception {
+        Path disk = Files.createDirectories(tempDir.resolve("disk2"));
+        Files.write(tempDir.resolve("ab12.mp4"), new byte[1]);
+        Files.write(Files.createDirectories(disk.resolve("ab/12")).resolve("ab12.mp4"), new byte[2]);
+        Files.write(Files.createDirectories(tempDir.resolve("cd/34")).resolve("cd34.mp4"), new byte[3]);
+        Files.write(Files.createDirectories(tempDir.resolve(".blobs/ef")).resolve("ef56"), new byte[4]);
+        Files.write(tempDir.resolve("cd/34/gh78.mp4.part"), new byte[5]);
+
+        MediaFileIndex index = new MediaFileIndex(List.of(tempDir, disk), FileHandlerUtil::detectVideoContentType);
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertEquals(2, index.find("ab12").orElseThrow().size());
+        assertEquals(3, index.find("cd34").orElseThrow().size());
+    }
+}
@@ -0,0 +1,104 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Mp4FastStartTest {
+
+    private static final byte[] SAMPLE = "SAMPLE".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rewriteMovesMoovBeforeMdatAndShiftsChunkOffsets() throws Exception {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII));
+        byte[] mdat = box("mdat", SAMPLE);
+        int sampleOffset = ftyp.length + 8;
+        byte[] moov = moov(sampleOffset);
+        Path file = write("movie.mp4", ftyp, mdat, moov);
+        Path workFile = tempDir.resolve("movie.mp4.work");
+
+        assertTrue(Mp4FastStart.rewrite(file, workFile));
+
+        byte[] rewritten = Files.readAllBytes(workFile);
+        assertEquals(file.toFile().length(), rewritten.length);
+        assertEquals("moov", new String(rewritten, ftyp.length + 4, 4, StandardCharsets.US_ASCII));
+        int newOffset = readChunkOffset(rewritten, ftyp.length);
+        assertEquals(sampleOffset + moov.length, newOffset);
+        assertEquals("SAMPLE", new String(rewritten, newOffset, SAMPLE.length, StandardCharsets.US_ASCII));
+        assertEquals(91, Mp4FastStart.readDurationSeconds(workFile).orElseThrow());
+    }
+
+    @Test
+    void rewriteSkipsFilesThatAreAlreadyFastStart() throws Exception {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII));
+        Path file = write("movie.mp4", ftyp, moov(0), box("mdat", SAMPLE));
+
+        assertFalse(Mp4FastStart.rewrite(file, tempDir.resolve("movie.mp4.work")));
+        assertEquals(91, Mp4FastStart.readDurationSeconds(file).orElseThrow());
+    }
+
+    @Test
+    void rewriteRejectsChunkOffsetTablesThatOverrunTheirBox() throws Exception {
+        byte[] ftyp = box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII));
+        byte[] mdat = box("mdat", SAMPLE);
+        Path file = write("movie.mp4", ftyp, mdat, moov(ftyp.length + 8, 1_000_000));
+        Path workFile = tempDir.resolve("movie.mp4.work");
+
+        assertFalse(Mp4FastStart.rewrite(file, workFile));
+        assertFalse(Files.exists(workFile));
+    }
+
+    private byte[] moov(int chunkOffset) {
+        return moov(chunkOffset, 1);
+    }
+
+    private byte[] moov(int chunkOffset, int entryCount) {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.position(12);
+        mvhd.putInt(1000);
+        mvhd.putInt(90_500);
+        ByteBuffer stco = ByteBuffer.allocate(12);
+        stco.putInt(4, entryCount);
+        stco.putInt(8, chunkOffset);
+        byte[] stbl = box("stbl", box("stco", stco.array()));
+        byte[] trak = box("trak", box("mdia", box("minf", stbl)));
+        return box("moov", concat(box("mvhd", mvhd.array()), trak));
+    }
+
+    private int readChunkOffset(byte[] file, int moovOffset) {
+        int stcoOffset = moovOffset + 8 + 108 + 8 * 4;
+        return ByteBuffer.wrap(file).getInt(stcoOffset + 16);
+    }
+
+    private byte[] box(String type, byte[] body) {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + body.length);
+        buffer.putInt(8 + body.length);
+        buffer.put(type.getBytes(StandardCharsets.US_ASCII));
+        buffer.put(body);
+        return buffer.array();
+    }
+
+    private byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private Path write(String name, byte[]... parts) throws Exception {
+        return Files.write(tempDir.resolve(name), concat(parts));
+    }
+}
@@ -0,0 +1,107 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates slow viewers on a fixed worker pool, the way Tomcat's request threads are shared. Each
+ * viewer keeps asking for {@code bytes=X-}; with unbounded ranges a worker streams the whole rest of
+ * the file, with bounded ranges it returns after one window and the viewer queues for the next.
+ * A viewer counts as sustained when its first byte arrives within the start-up budget.
+ * Run with {@code mvn test -Dtest=OpenRangeLoadBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OpenRangeLoadBenchmarkTest {
+
+    private static final int WORKERS = 20;
+    private static final long FILE_SIZE = 32L * 1024 * 1024;
+    private static final long WINDOW = 4L * 1024 * 1024;
+    private static final long CLIENT_BYTES_PER_SECOND = 16L * 1024 * 1024;
+    private static final long STARTUP_BUDGET_MILLIS = 1000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareUnboundedAndBoundedOpenRanges() throws Exception {
+        Path video = tempDir.resolve("video.mp4");
+        Files.write(video, new byte[(int) FILE_SIZE]);
+
+        for (int viewers : new int[]{WORKERS, WORKERS * 2, WORKERS * 4, WORKERS * 8}) {
+            report("unbounded", viewers, run(video, viewers, 0));
+            report("bounded", viewers, run(video, viewers, WINDOW));
+        }
+    }
+
+    private List<Long> run(Path video, int viewers, long maxOpenRange) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        List<Long> timeToFirstByte = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch finished = new CountDownLatch(viewers);
+        long started = System.nanoTime();
+        for (int viewer = 0; viewer < viewers; viewer++) {
+            workers.submit(new Viewer(video, maxOpenRange, 0, started, timeToFirstByte, finished, workers));
+        }
+        finished.await(5, TimeUnit.MINUTES);
+        workers.shutdownNow();
+        return timeToFirstByte;
+    }
+
+    private void report(String mode, int viewers, List<Long> timeToFirstByte) {
+        long sustained = timeToFirstByte.stream().filter(millis -> millis <= STARTUP_BUDGET_MILLIS).count();
+        long worst = timeToFirstByte.stream().mapToLong(Long::longValue).max().orElse(0);
+        System.out.printf("%-9s viewers=%4d sustained=%4d worst-ttfb=%6d ms%n", mode, viewers, sustained, worst);
+    }
+
+    private record Viewer(Path video, long maxOpenRange, long offset, long started, List<Long> timeToFirstByte,
+                          CountDownLatch finished, ExecutorService workers) implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                if (offset == 0) {
+                    timeToFirstByte.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                }
+                long[] range = FileHandlerUtil.parseRangeHeader("bytes=" + offset + "-", FILE_SIZE, maxOpenRange).get(0);
+                long length = range[1] - range[0] + 1;
+                Resource resource = FileHandlerUtil.createRangeResource(video, range[0], length);
+                try (InputStream in = resource.getInputStream()) {
+                    consumeSlowly(in, length);
+                }
+                if (range[1] + 1 < FILE_SIZE) {
+                    workers.submit(new Viewer(video, maxOpenRange, range[1] + 1, started, timeToFirstByte, finished, workers));
+                } else {
+                    finished.countDown();
+                }
+            } catch (IOException | InterruptedException e) {
+                finished.countDown();
+            }
+        }
+
+        private void consumeSlowly(InputStream in, long length) throws IOException, InterruptedException {
+            byte[] buffer = new byte[256 * 1024];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                remaining -= read;
+                Thread.sleep(read * 1000L / CLIENT_BYTES_PER_SECOND);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.movie.app.util;
+
+import com.movie.app.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void cursorSurvivesEncodingWithMicrosecondPrecision() {
+        PageCursor cursor = new PageCursor(Instant.parse("2025-03-14T09:26:53.589793Z"), 4242);
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void blankCursorStartsAtTheFirstPage() {
+        assertEquals(PageCursor.START, PageCursor.decode(""));
+        assertEquals(PageCursor.START, PageCursor.decode(null));
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("MTIzNA"));
+    }
+}
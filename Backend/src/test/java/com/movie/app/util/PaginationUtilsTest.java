@@ -0,0 +1,44 @@
+package com.movie.app.util;
+
+import com.movie.app.dto.response.PageResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaginationUtilsTest {
+
+    @Test
+    void lastSliceKnowsItsTotalWithoutCounting() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(2, 10), false);
+
+        assertEquals(22, PaginationUtils.withTotal(slice, () -> {
+            throw new AssertionError("count should not run");
+        }).getTotalElements());
+    }
+
+    @Test
+    void sliceWithNextPageAsksForTheTotal() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true);
+
+        assertEquals(50, PaginationUtils.withTotal(slice, () -> 50).getTotalElements());
+    }
+
+    @Test
+    void sliceResponseHasNoTotals() {
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b"), PageRequest.of(1, 2), true);
+
+        PageResponse<String> response = PaginationUtils.toSliceResponse(slice, Function.identity());
+
+        assertNull(response.getTotalElements());
+        assertNull(response.getTotalPages());
+        assertEquals(1, response.getNumber());
+        assertTrue(response.getHasNext());
+    }
+}
@@ -0,0 +1,71 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RandomIdSamplerTest {
+
+    @Test
+    void samplesAreDistinctIdsFromTheSet() {
+        RandomIdSampler sampler = new RandomIdSampler();
+        sampler.reset(LongStream.rangeClosed(1, 20).boxed().toList());
+
+        for (int round = 0; round < 100; round++) {
+            long[] sample = sampler.sample(5);
+            Set<Long> distinct = Arrays.stream(sample).boxed().collect(Collectors.toSet());
+            assertEquals(5, distinct.size());
+            assertTrue(distinct.stream().allMatch(id -> id >= 1 && id <= 20));
+        }
+    }
+
+    @Test
+    void smallSetsAreReturnedWhole() {
+        RandomIdSampler sampler = new RandomIdSampler();
+        sampler.reset(List.of(7L, 3L, 3L));
+
+        long[] sample = sampler.sample(5);
+        Arrays.sort(sample);
+        assertArrayEquals(new long[]{3, 7}, sample);
+        assertEquals(0, new RandomIdSampler().sample(5).length);
+    }
+
+    @Test
+    void addAndRemoveKeepTheSetCurrent() {
+        RandomIdSampler sampler = new RandomIdSampler();
+        sampler.reset(List.of(1L, 5L));
+        sampler.add(3L);
+        sampler.add(3L);
+        sampler.remove(1L);
+        sampler.remove(9L);
+
+        long[] sample = sampler.sample(10);
+        Arrays.sort(sample);
+        assertArrayEquals(new long[]{3, 5}, sample);
+    }
+
+    @Test
+    void everyIdIsPickedRoughlyEvenly() {
+        RandomIdSampler sampler = new RandomIdSampler();
+        sampler.reset(LongStream.range(0, 10).boxed().toList());
+
+        int[] picks = new int[10];
+        for (int round = 0; round < 20_000; round++) {
+            for (long id : sampler.sample(5)) {
+                picks[(int) id]++;
+            }
+        }
+        // Each id is expected in half of the samples: 10,000 picks
+        for (int count : picks) {
+            assertTrue(count > 9_000 && count < 11_000, "picks " + Arrays.toString(picks));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the heap-copying range stream with FileChannel.transferTo, which is what the
+ * connector's sendfile does for us. Run with {@code mvn test -Dtest=RangeServingBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RangeServingBenchmarkTest {
+
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+    private static final long RANGE_SIZE = 2L * 1024 * 1024;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareStreamAndTransferTo() throws IOException {
+        Path video = createVideo();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        try (FileChannel sink = FileChannel.open(Paths.get("/dev/null"), StandardOpenOption.WRITE)) {
+            runStream(video, sink);
+            runTransferTo(video, sink);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                long cpu = threads.getCurrentThreadCpuTime();
+                long wall = System.nanoTime();
+                long bytes = runStream(video, sink);
+                report("stream", bytes, System.nanoTime() - wall, threads.getCurrentThreadCpuTime() - cpu);
+
+                cpu = threads.getCurrentThreadCpuTime();
+                wall = System.nanoTime();
+                bytes = runTransferTo(video, sink);
+                report("transferTo", bytes, System.nanoTime() - wall, threads.getCurrentThreadCpuTime() - cpu);
+            }
+        }
+    }
+
+    private long runStream(Path video, FileChannel sink) throws IOException {
+        long served = 0;
+        OutputStream out = Channels.newOutputStream(sink);
+        for (long start = 0; start < FILE_SIZE; start += RANGE_SIZE) {
+            Resource range = FileHandlerUtil.createRangeResource(video, start, RANGE_SIZE);
+            try (InputStream in = range.getInputStream()) {
+                served += StreamUtils.copy(in, out);
+            }
+        }
+        return served;
+    }
+
+    private long runTransferTo(Path video, FileChannel sink) throws IOException {
+        long served = 0;
+        try (FileChannel source = FileChannel.open(video, StandardOpenOption.READ)) {
+            for (long start = 0; start < FILE_SIZE; start += RANGE_SIZE) {
+                long position = start;
+                long remaining = RANGE_SIZE;
+                while (remaining > 0) {
+                    long sent = source.transferTo(position, remaining, sink);
+                    position += sent;
+                    remaining -= sent;
+                }
+                served += RANGE_SIZE;
+            }
+        }
+        return served;
+    }
+
+    private Path createVideo() throws IOException {
+        Path video = tempDir.resolve("video.mp4");
+        byte[] chunk = new byte[1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(chunk);
+        try (FileChannel channel = FileChannel.open(video, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            for (long written = 0; written < FILE_SIZE; written += chunk.length) {
+                channel.write(ByteBuffer.wrap(chunk));
+            }
+        }
+        return video;
+    }
+
+    private void report(String mode, long bytes, long wallNanos, long cpuNanos) {
+        double gigabytes = bytes / (1024.0 * 1024 * 1024);
+        System.out.printf("%-10s %8.1f MB/s %8.1f cpu-ms/GB%n",
+                mode, bytes / (1024.0 * 1024) / (wallNanos / 1e9), cpuNanos / 1e6 / gigabytes);
+    }
+}
@@ -0,0 +1,96 @@
+package com.movie.app.util;
+
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadAheadPrefetcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ReadAheadPrefetcher prefetcher;
+
+    @AfterEach
+    void closePrefetcher() {
+        prefetcher.close();
+    }
+
+    @Test
+    void sequentialRangesAreWarmedAheadAndCountedAsHits() throws Exception {
+        MediaFile video = video("0123456789abcdefghijklmnopqrstuv");
+        prefetcher = new ReadAheadPrefetcher(4, 2, 1024, 1, 60_000);
+
+        prefetcher.recordAccess(video, 0, 4);
+        assertEquals(0, prefetcher.warmedChunkCount());
+        prefetcher.recordAccess(video, 4, 4);
+        awaitWarmedChunks(2);
+        assertEquals(2, prefetcher.issuedCount());
+        assertEquals(8, prefetcher.sizeInBytes());
+
+        prefetcher.recordAccess(video, 8, 6);
+        assertEquals(2, prefetcher.hitCount());
+    }
+
+    @Test
+    void randomAccessDoesNotTriggerReadAhead() throws Exception {
+        MediaFile video = video("0123456789abcdefghijklmnopqrstuv");
+        prefetcher = new ReadAheadPrefetcher(4, 2, 1024, 1, 60_000);
+
+        prefetcher.recordAccess(video, 0, 4);
+        prefetcher.recordAccess(video, 20, 4);
+        prefetcher.recordAccess(video, 8, 4);
+        Thread.sleep(50);
+
+        assertEquals(0, prefetcher.issuedCount());
+        assertEquals(0, prefetcher.warmedChunkCount());
+    }
+
+    @Test
+    void unusedChunksExpireAsWaste() throws Exception {
+        MediaFile video = video("0123456789abcdefghijklmnopqrstuv");
+        prefetcher = new ReadAheadPrefetcher(4, 2, 1024, 1, 1);
+
+        prefetcher.recordAccess(video, 0, 4);
+        prefetcher.recordAccess(video, 4, 4);
+        awaitWarmedChunks(2);
+        Thread.sleep(5);
+        prefetcher.recordAccess(video, 28, 4);
+
+        assertEquals(2, prefetcher.wastedCount());
+        assertEquals(0, prefetcher.sizeInBytes());
+    }
+
+    @Test
+    void fullBudgetSkipsReadAhead() throws Exception {
+        MediaFile video = video("0123456789abcdefghijklmnopqrstuv");
+        prefetcher = new ReadAheadPrefetcher(4, 2, 4, 1, 60_000);
+
+        prefetcher.recordAccess(video, 0, 4);
+        prefetcher.recordAccess(video, 4, 4);
+        awaitWarmedChunks(1);
+        Thread.sleep(50);
+        prefetcher.recordAccess(video, 4, 4);
+
+        assertEquals(4, prefetcher.sizeInBytes());
+        assertEquals(2, prefetcher.skippedCount());
+    }
+
+    private void awaitWarmedChunks(int count) throws InterruptedException {
+        for (int attempt = 0; attempt < 200 && prefetcher.warmedChunkCount() < count; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, prefetcher.warmedChunkCount());
+    }
+
+    private MediaFile video(String content) throws Exception {
+        Path path = Files.writeString(tempDir.resolve("video.mp4"), content);
+        return new MediaFileIndex(tempDir, FileHandlerUtil::detectVideoContentType).register(path);
+    }
+}
@@ -0,0 +1,117 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads the same set of files spread over 1..n storage roots and reports aggregate throughput.
+ * Point {@code -Dbenchmark.roots=/mnt/disk1/bench,/mnt/disk2/bench,...} at directories on separate
+ * disks; without it all roots share the temp directory's disk and no scaling is expected. Reads go
+ * through the page cache, so raise {@code -Dbenchmark.files} until the files written
+ * ({@code files x 16 MB}) exceed the machine's memory; otherwise the numbers measure RAM, not the disks.
+ * Run with {@code mvn test -Dtest=ShardedStorageBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShardedStorageBenchmarkTest {
+
+    private static final int FILES = Integer.getInteger("benchmark.files", 64);
+    private static final int FILE_SIZE = 16 * 1024 * 1024;
+    private static final int READERS_PER_ROOT = 4;
+    private static final int READ_SIZE = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void aggregateReadThroughputPerRootCount() throws Exception {
+        List<Path> roots = configuredRoots();
+        for (int rootCount = 1; rootCount <= roots.size(); rootCount++) {
+            List<Path> activeRoots = roots.subList(0, rootCount);
+            ShardedStorageLayout layout = new ShardedStorageLayout(activeRoots.get(0), activeRoots, true);
+            List<Path> files = writeFiles(layout);
+            try {
+                long started = System.nanoTime();
+                long bytes = readConcurrently(files, rootCount * READERS_PER_ROOT);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                System.out.printf("roots=%d files=%d read=%d MB throughput=%.1f MB/s%n",
+                        rootCount, files.size(), bytes >> 20, bytes / seconds / (1 << 20));
+            } finally {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private List<Path> configuredRoots() throws IOException {
+        String configured = System.getProperty("benchmark.roots");
+        if (configured != null && !configured.isBlank()) {
+            return Arrays.stream(configured.split(",")).map(String::trim).map(Path::of).toList();
+        }
+        List<Path> roots = new ArrayList<>();
+        for (int disk = 1; disk <= 4; disk++) {
+            roots.add(Files.createDirectories(tempDir.resolve("disk" + disk)));
+        }
+        return roots;
+    }
+
+    private List<Path> writeFiles(ShardedStorageLayout layout) throws IOException {
+        byte[] content = new byte[FILE_SIZE];
+        Arrays.fill(content, (byte) 7);
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            Path file = layout.resolve(UUID.randomUUID() + ".mp4");
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(content));
+                channel.force(true);
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    private long readConcurrently(List<Path> files, int readers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        try {
+            List<Future<Long>> reads = new ArrayList<>();
+            for (Path file : files) {
+                reads.add(pool.submit(() -> read(file)));
+            }
+            long total = 0;
+            for (Future<Long> read : reads) {
+                total += read.get();
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private long read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_SIZE);
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int read;
+            while ((read = channel.read(buffer.clear(), total)) > 0) {
+                total += read;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,59 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedStorageLayoutTest {
+
+    private static final Path LEGACY = Path.of("/media/videos");
+    private static final List<Path> DISKS = List.of(Path.of("/mnt/disk1"), Path.of("/mnt/disk2"), Path.of("/mnt/disk3"));
+
+    @Test
+    void filesAreNestedUnderUuidPrefixDirectories() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(LEGACY, List.of(), true);
+
+        Path path = layout.resolve("3f9a1c22-0000-4000-8000-000000000000.mp4");
+
+        assertEquals(LEGACY.resolve("3f/9a/3f9a1c22-0000-4000-8000-000000000000.mp4"), path);
+        assertTrue(layout.isInPlace(path));
+        assertFalse(layout.isInPlace(LEGACY.resolve("3f9a1c22-0000-4000-8000-000000000000.mp4")));
+    }
+
+    @Test
+    void flatLayoutKeepsFilesInTheLegacyDirectory() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(LEGACY, DISKS, false);
+
+        assertEquals(LEGACY.resolve("abcd.mp4"), layout.resolve("abcd.mp4"));
+    }
+
+    @Test
+    void filesSpreadEvenlyAndAddingADiskMovesOnlyItsShare() {
+        ShardedStorageLayout threeDisks = new ShardedStorageLayout(LEGACY, DISKS, true);
+        ShardedStorageLayout fourDisks = new ShardedStorageLayout(LEGACY,
+                List.of(DISKS.get(0), DISKS.get(1), DISKS.get(2), Path.of("/mnt/disk4")), true);
+
+        Map<Path, Integer> perDisk = new HashMap<>();
+        int moved = 0;
+        int files = 30_000;
+        for (int i = 0; i < files; i++) {
+            String filename = UUID.randomUUID() + ".mp4";
+            Path root = threeDisks.rootFor(filename);
+            perDisk.merge(root, 1, Integer::sum);
+            if (!root.equals(fourDisks.rootFor(filename))) {
+                moved++;
+            }
+        }
+
+        perDisk.values().forEach(count -> assertTrue(Math.abs(count - files / 3) < files / 10, "unbalanced: " + perDisk));
+        assertTrue(moved > files / 6 && moved < files / 3, "moved " + moved);
+    }
+}
@@ -0,0 +1,55 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrigramIndexTest {
+
+    @Test
+    void substringsAndSmallTyposMatchTitles() {
+        TrigramIndex index = catalog();
+
+        assertArrayEquals(new long[]{1}, index.search("atrix", true));
+        assertArrayEquals(new long[]{1}, index.search("matirx", true));
+        assertArrayEquals(new long[]{2}, index.search("Inception", true));
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        TrigramIndex index = catalog();
+
+        assertArrayEquals(new long[]{3, 1}, index.search("dream", true));
+    }
+
+    @Test
+    void unpublishedVideosAreOnlyReturnedWhenAsked() {
+        TrigramIndex index = catalog();
+        index.setPublished(1, false);
+
+        assertEquals(0, index.search("matrix", true).length);
+        assertArrayEquals(new long[]{1}, index.search("matrix", false));
+    }
+
+    @Test
+    void updatesReplaceAndRemoveTheOldTrigrams() {
+        TrigramIndex index = catalog();
+
+        index.put(2, "Interstellar", "Space travel", true);
+        assertEquals(0, index.search("inception", false).length);
+        assertArrayEquals(new long[]{2}, index.search("interstellar", true));
+
+        index.remove(2);
+        assertEquals(0, index.search("interstellar", false).length);
+        assertEquals(2, index.size());
+    }
+
+    private TrigramIndex catalog() {
+        TrigramIndex index = new TrigramIndex(0.3);
+        index.put(1, "The Matrix", "A hacker learns the world is a dream", true);
+        index.put(2, "Inception", "Thieves steal secrets from sleeping minds", true);
+        index.put(3, "Dreamcatcher", "Friends at a cabin", true);
+        return index;
+    }
+}
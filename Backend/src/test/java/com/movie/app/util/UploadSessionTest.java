@@ -0,0 +1,155 @@
+package com.movie.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadSessionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void chunksWrittenOutOfOrderCommitContiguously() throws Exception {
+        Path partFile = tempDir.resolve("upload.mp4.part");
+        UploadSession session = new UploadSession("upload", "movie.mp4", 10, partFile);
+
+        session.writeChunk(6, stream("6789"), 1024);
+        assertEquals(0, session.committedOffset());
+        assertEquals(4, session.receivedBytes());
+
+        session.writeChunk(0, stream("012"), 1024);
+        assertEquals(3, session.committedOffset());
+        assertFalse(session.isComplete());
+
+        session.writeChunk(3, stream("345"), 1024);
+        assertTrue(session.isComplete());
+        session.close(true);
+
+        assertEquals("0123456789", Files.readString(partFile));
+    }
+
+    @Test
+    void chunkIsLimitedToRemainingSize() throws Exception {
+        UploadSession session = new UploadSession("upload", "movie.mp4", 4, tempDir.resolve("upload.mp4.part"));
+
+        assertEquals(2, session.writeChunk(2, stream("23456"), 1024));
+        assertEquals(4, Files.size(session.getPartFile()));
+        session.close(false);
+    }
+
+    @Test
+    void closeWaitsForChunksBeingWrittenAndRejectsLaterOnes() throws Exception {
+        UploadSession session = new UploadSession("upload", "movie.mp4", 4, tempDir.resolve("upload.mp4.part"));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowBody = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == 1) {
+                    writing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        throw new InterruptedIOException();
+                    }
+                }
+                return position < 4 ? '0' + position++ : -1;
+            }
+        };
+
+        CompletableFuture<Long> writer = CompletableFuture.supplyAsync(() -> {
+            try {
+                return session.writeChunk(0, slowBody, 1024);
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> closer = CompletableFuture.runAsync(() -> {
+            try {
+                session.close(true);
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(closer.isDone());
+
+        release.countDown();
+        assertEquals(4, writer.get(5, TimeUnit.SECONDS));
+        closer.get(5, TimeUnit.SECONDS);
+        assertTrue(session.isComplete());
+        assertEquals("0123", Files.readString(session.getPartFile()));
+        assertThrows(ClosedChannelException.class, () -> session.writeChunk(0, stream("0123"), 1024));
+    }
+
+    @Test
+    void abortedSessionDeletesItsPartFile() throws Exception {
+        UploadSession session = new UploadSession("upload", "movie.mp4", 4, tempDir.resolve("upload.mp4.part"));
+        assertFalse(session.isIdleSince(Instant.now().minusSeconds(60)));
+        assertTrue(session.isIdleSince(Instant.now().plusSeconds(1)));
+
+        session.abort();
+
+        assertFalse(Files.exists(session.getPartFile()));
+        assertFalse(Files.exists(session.getSessionFile()));
+        assertThrows(ClosedChannelException.class, () -> session.writeChunk(0, stream("0123"), 1024));
+    }
+
+    @Test
+    void restoredSessionResumesFromItsCommittedRanges() throws Exception {
+        Path partFile = tempDir.resolve("upload.mp4.part");
+        UploadSession session = new UploadSession("upload", "movie.mp4", 10, partFile);
+        session.writeChunk(0, stream("012"), 3);
+        session.writeChunk(6, stream("6789"), 4);
+        // A restart: the process goes away without completing or aborting the session
+        session.close(false);
+
+        assertTrue(UploadSession.isSessionFile(session.getSessionFile()));
+        UploadSession restored = UploadSession.restore(session.getSessionFile());
+
+        assertEquals("upload", restored.getUploadId());
+        assertEquals("movie.mp4", restored.getFilename());
+        assertEquals(10, restored.getSize());
+        assertEquals(3, restored.committedOffset());
+        assertEquals(7, restored.receivedBytes());
+
+        restored.writeChunk(3, stream("345"), 3);
+        assertTrue(restored.isComplete());
+        restored.close(true);
+        assertEquals("0123456789", Files.readString(partFile));
+    }
+
+    @Test
+    void sessionWhosePartFileIsGoneCannotBeRestored() throws Exception {
+        UploadSession session = new UploadSession("upload", "movie.mp4", 4, tempDir.resolve("upload.mp4.part"));
+        session.close(false);
+        Files.delete(session.getPartFile());
+
+        assertThrows(IOException.class, () -> UploadSession.restore(session.getSessionFile()));
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,62 @@
+package com.movie.app.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.app.dto.response.SparseVideoResponse;
+import com.movie.app.dto.response.VideoResponse;
+import com.movie.app.exception.InvalidFieldsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VideoFieldTest {
+
+    @Test
+    void fieldListIsParsedByJsonName() {
+        assertEquals(EnumSet.of(VideoField.ID, VideoField.TITLE, VideoField.POSTER_PLACEHOLDER, VideoField.IS_IN_WATCHLIST),
+                VideoField.parse("id, title,,posterPlaceholder,isInWatchlist"));
+    }
+
+    @Test
+    void missingFieldListMeansTheFullResponse() {
+        assertNull(VideoField.parse(null));
+        assertNull(VideoField.parse(" "));
+    }
+
+    @Test
+    void unknownOrEmptyFieldListsAreRejected() {
+        assertThrows(InvalidFieldsException.class, () -> VideoField.parse("id,srcUuid"));
+        assertThrows(InvalidFieldsException.class, () -> VideoField.parse(","));
+    }
+
+    @Test
+    void sparseResponsesOnlySerializeTheSelectedFields() throws Exception {
+        VideoResponse response = new SparseVideoResponse();
+        response.setId(7L);
+        response.setTitle("Heat");
+        response.setPosterPlaceholder(null);
+
+        MappingJacksonValue value = SparseVideoResponse.select(List.of(response), "id,title,posterPlaceholder");
+
+        assertEquals("[{\"id\":7,\"title\":\"Heat\",\"posterPlaceholder\":null}]",
+                new ObjectMapper().writer(value.getFilters()).writeValueAsString(value.getValue()));
+    }
+
+    @Test
+    void fullResponsesKeepEveryField() throws Exception {
+        VideoResponse response = new VideoResponse();
+        response.setId(7L);
+
+        String json = new ObjectMapper().writeValueAsString(SparseVideoResponse.select(response, null).getValue());
+
+        assertTrue(json.contains("\"published\":false"));
+        assertTrue(json.contains("\"duration\":null"));
+        assertTrue(json.contains("\"isInWatchlist\":null"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.movie.app.util;
+
+import com.movie.app.util.MediaFileIndex.MediaFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VideoSegmentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rangesSpanningChunksAreAssembledAndCached() throws Exception {
+        MediaFile video = video("0123456789abcdef");
+        VideoSegmentCache cache = new VideoSegmentCache(16, 4);
+
+        assertEquals("3456789a", read(cache, video, 3, 8));
+        assertEquals(3, cache.missCount());
+        assertEquals("5678", read(cache, video, 5, 4));
+        assertEquals(2, cache.hitCount());
+        assertEquals(4, cache.bytesFromCache());
+        assertEquals(8, cache.bytesFromDisk());
+    }
+
+    @Test
+    void rarelyUsedChunkDoesNotDisplaceAPopularOne() throws Exception {
+        MediaFile video = video("0123456789abcdef");
+        VideoSegmentCache cache = new VideoSegmentCache(4, 4);
+
+        read(cache, video, 0, 4);
+        read(cache, video, 0, 4);
+        read(cache, video, 8, 4);
+
+        assertEquals("0123", read(cache, video, 0, 4));
+        assertEquals(2, cache.hitCount());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    void rejectedChunkIsServedFromTheFileWithoutBeingCached() throws Exception {
+        MediaFile video = video("0123456789abcdef");
+        VideoSegmentCache cache = new VideoSegmentCache(4, 4);
+
+        read(cache, video, 0, 4);
+        read(cache, video, 0, 4);
+
+        assertEquals("9abcd", read(cache, video, 9, 5));
+        assertEquals(4, cache.sizeInBytes());
+        assertEquals(4 + 5, cache.bytesFromDisk());
+    }
+
+    @Test
+    void leastFrequentlyUsedChunkIsEvicted() throws Exception {
+        MediaFile video = video("0123456789abcdef");
+        VideoSegmentCache cache = new VideoSegmentCache(8, 4);
+
+        read(cache, video, 0, 4);
+        read(cache, video, 0, 4);
+        read(cache, video, 4, 4);
+        read(cache, video, 8, 4);
+
+        assertEquals(1, cache.evictionCount());
+        long hits = cache.hitCount();
+        assertEquals("0123", read(cache, video, 0, 4));
+        assertEquals("89ab", read(cache, video, 8, 4));
+        assertEquals(hits + 2, cache.hitCount());
+    }
+
+    private String read(VideoSegmentCache cache, MediaFile video, long start, long length) throws Exception {
+        try (InputStream in = cache.createRangeResource(video, start, length).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    private MediaFile video(String content) throws Exception {
+        Path path = Files.writeString(tempDir.resolve("video.mp4"), content);
+        return new MediaFileIndex(tempDir, FileHandlerUtil::detectVideoContentType).register(path);
+    }
+}